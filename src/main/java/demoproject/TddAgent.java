@@ -57,6 +57,10 @@ public class TddAgent {
             );
 
             // Execute TDD workflow
+            // The progress line is redrawn in place, which only reads well while one requirement streams at a time
+            if (config.isLlmStreamingEnabled() && !config.isVirtualThreadsEnabled() && config.getMaxConcurrentTasks() == 1) {
+                controller.setProgressListener(view::displayStreamProgress);
+            }
             view.displayProgress("Starting", "TDD workflow execution");
             TddController.TddWorkflowResult result = controller.executeTddWorkflow();
 
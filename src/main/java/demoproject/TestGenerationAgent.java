@@ -6,7 +6,6 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +14,7 @@ import demoproject.config.AgentConfig;
 import demoproject.models.GeneratedTest;
 import demoproject.models.Requirement;
 import demoproject.services.RequirementsReader;
+import demoproject.services.TaskExecutors;
 import demoproject.services.TestGenerator;
 
 /**
@@ -33,7 +33,7 @@ public class TestGenerationAgent {
     public TestGenerationAgent(AgentConfig config) {
         this.requirementsReader = new RequirementsReader(config);
         this.testGenerator = new TestGenerator(config);
-        this.executorService = Executors.newFixedThreadPool(config.getMaxConcurrentTasks());
+        this.executorService = TaskExecutors.newExecutor(config, "test-generation", config.getMaxConcurrentTasks());
     }
 
     /**
@@ -22,13 +22,50 @@ public class AgentConfig {
     private static final String DEFAULT_REQUIREMENTS_FOLDER = "requirements";
     private static final String DEFAULT_OUTPUT_FOLDER = "generated-tests";
     private static final int DEFAULT_MAX_CONCURRENT_TASKS = 4;
+    private static final int DEFAULT_DISK_MAX_CONCURRENCY = 16;
+    private static final String DEFAULT_COMPILE_BACKEND = "in-process";
+    private static final String DEFAULT_TEST_BACKEND = "worker";
+    private static final long DEFAULT_TEST_TIMEOUT_MS = 10000;
+    private static final int DEFAULT_TEST_WORKER_MAX_RUNS = 50;
+    private static final long DEFAULT_TEST_RUN_TIMEOUT_MS = 120000;
+    private static final int DEFAULT_TEST_MAX_HEAP_MB = 256;
+    private static final String DEFAULT_MAVEN_EXECUTABLE = "auto";
+    private static final int DEFAULT_COMPILE_CACHE_MEMORY_ENTRIES = 128;
+    private static final int DEFAULT_COMPILE_CACHE_DISK_MAX_MB = 128;
     private static final String DEFAULT_TEST_FRAMEWORK = "junit5";
     private static final String DEFAULT_LANGUAGE = "java";
+    private static final int DEFAULT_LLM_CACHE_MEMORY_ENTRIES = 256;
+    private static final int DEFAULT_LLM_CACHE_DISK_MAX_MB = 256;
+    private static final int DEFAULT_LLM_RETRY_MAX_ATTEMPTS = 4;
+    private static final long DEFAULT_LLM_RETRY_BASE_DELAY_MS = 500;
+    private static final long DEFAULT_LLM_RETRY_MAX_DELAY_MS = 30000;
+    private static final int DEFAULT_LLM_MAX_OUTPUT_TOKENS = 2048;
+    private static final int DEFAULT_LLM_PROMPT_MAX_TOKENS = 6000;
+    private static final int DEFAULT_LLM_PAYLOAD_LOG_MAX_BYTES = 2048;
+    private static final String DEFAULT_LLM_STUB_LATENCY_DISTRIBUTION = "lognormal";
+    private static final long DEFAULT_LLM_STUB_LATENCY_MEAN_MS = 500;
+    private static final long DEFAULT_LLM_STUB_SEED = 42;
 
     // Configuration properties
     private String requirementsFolder;
     private String outputFolder;
     private int maxConcurrentTasks;
+    private boolean virtualThreadsEnabled;
+    private int buildMaxConcurrency; // 0 = one per two available processors
+    private int diskMaxConcurrency;
+    private String compileBackend; // in-process or maven
+    private String compileClasspath; // null = the generated project's test dependencies from the local Maven repository
+    private boolean compileCacheEnabled;
+    private int compileCacheMemoryEntries;
+    private int compileCacheDiskMaxMb;
+    private String testBackend; // worker, in-process or maven
+    private long testTimeoutMs; // 0 = no limit
+    private int testWorkerMaxRuns;
+    private long testRunTimeoutMs; // 0 = no limit
+    private int testMaxHeapMb;
+    private String mavenExecutable; // auto = mvnd if on the PATH, otherwise mvn
+    private boolean mavenOffline;
+    private String mavenRepoLocal; // null = Maven's default local repository
     private String testFramework;
     private String language;
     private String llmApiKey;
@@ -37,14 +74,66 @@ public class AgentConfig {
     private String llmProvider; // New field for LLM provider
     private String gitRepositoryUrl;
     private String gitBranch;
+    private int httpMaxConnectionsPerRoute; // 0 = derive from maxConcurrentTasks
+    private int httpMaxConnectionsTotal; // 0 = derive from maxConcurrentTasks
+    private boolean llmCacheEnabled;
+    private int llmCacheMemoryEntries;
+    private int llmCacheDiskMaxMb;
+    private boolean llmStreamingEnabled;
+    private int llmRequestsPerMinute; // 0 = unlimited
+    private int llmTokensPerMinute; // 0 = unlimited
+    private int llmMaxConcurrency; // 0 = derive from the HTTP connection pool
+    private int llmRetryMaxAttempts;
+    private long llmRetryBaseDelayMs;
+    private long llmRetryMaxDelayMs;
+    private boolean llmHedgingEnabled;
+    private int llmMaxOutputTokens;
+    private int llmPromptMaxTokens; // 0 = unlimited
+    private double llmPayloadLogSampleRate;
+    private int llmPayloadLogMaxBytes; // 0 = unlimited
+    private String llmDebugRequirementId;
+    private boolean llmStubEnabled;
+    private int llmStubPort; // 0 = any free port
+    private String llmStubLatencyDistribution;
+    private long llmStubLatencyMeanMs;
+    private double llmStubErrorRate;
+    private String llmStubResponsesFolder;
+    private long llmStubSeed;
+    private String resumeRunId; // null = start a new run
+    private boolean incrementalEnabled;
 
     public AgentConfig() {
         // Set default values
         this.requirementsFolder = DEFAULT_REQUIREMENTS_FOLDER;
         this.outputFolder = DEFAULT_OUTPUT_FOLDER;
         this.maxConcurrentTasks = DEFAULT_MAX_CONCURRENT_TASKS;
+        this.diskMaxConcurrency = DEFAULT_DISK_MAX_CONCURRENCY;
+        this.compileBackend = DEFAULT_COMPILE_BACKEND;
+        this.compileCacheEnabled = true;
+        this.compileCacheMemoryEntries = DEFAULT_COMPILE_CACHE_MEMORY_ENTRIES;
+        this.compileCacheDiskMaxMb = DEFAULT_COMPILE_CACHE_DISK_MAX_MB;
+        this.testBackend = DEFAULT_TEST_BACKEND;
+        this.testTimeoutMs = DEFAULT_TEST_TIMEOUT_MS;
+        this.testWorkerMaxRuns = DEFAULT_TEST_WORKER_MAX_RUNS;
+        this.testRunTimeoutMs = DEFAULT_TEST_RUN_TIMEOUT_MS;
+        this.testMaxHeapMb = DEFAULT_TEST_MAX_HEAP_MB;
+        this.mavenExecutable = DEFAULT_MAVEN_EXECUTABLE;
+        this.mavenOffline = true;
         this.testFramework = DEFAULT_TEST_FRAMEWORK;
         this.language = DEFAULT_LANGUAGE;
+        this.llmCacheEnabled = true;
+        this.llmCacheMemoryEntries = DEFAULT_LLM_CACHE_MEMORY_ENTRIES;
+        this.llmCacheDiskMaxMb = DEFAULT_LLM_CACHE_DISK_MAX_MB;
+        this.llmRetryMaxAttempts = DEFAULT_LLM_RETRY_MAX_ATTEMPTS;
+        this.llmRetryBaseDelayMs = DEFAULT_LLM_RETRY_BASE_DELAY_MS;
+        this.llmRetryMaxDelayMs = DEFAULT_LLM_RETRY_MAX_DELAY_MS;
+        this.llmMaxOutputTokens = DEFAULT_LLM_MAX_OUTPUT_TOKENS;
+        this.llmPromptMaxTokens = DEFAULT_LLM_PROMPT_MAX_TOKENS;
+        this.llmPayloadLogMaxBytes = DEFAULT_LLM_PAYLOAD_LOG_MAX_BYTES;
+        this.llmStubLatencyDistribution = DEFAULT_LLM_STUB_LATENCY_DISTRIBUTION;
+        this.llmStubLatencyMeanMs = DEFAULT_LLM_STUB_LATENCY_MEAN_MS;
+        this.llmStubSeed = DEFAULT_LLM_STUB_SEED;
+        this.incrementalEnabled = true;
     }
 
     /**
@@ -74,6 +163,39 @@ public class AgentConfig {
                         config.setMaxConcurrentTasks(Integer.parseInt(args[++i]));
                     }
                     break;
+                case "--max-builds":
+                    if (i + 1 < args.length) {
+                        config.setBuildMaxConcurrency(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--compile-backend":
+                    if (i + 1 < args.length) {
+                        config.setCompileBackend(args[++i]);
+                    }
+                    break;
+                case "--test-timeout":
+                    if (i + 1 < args.length) {
+                        config.setTestTimeoutMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--run-timeout":
+                    if (i + 1 < args.length) {
+                        config.setTestRunTimeoutMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--test-backend":
+                    if (i + 1 < args.length) {
+                        config.setTestBackend(args[++i]);
+                    }
+                    break;
+                case "--maven":
+                    if (i + 1 < args.length) {
+                        config.setMavenExecutable(args[++i]);
+                    }
+                    break;
+                case "--virtual-threads":
+                    config.setVirtualThreadsEnabled(true);
+                    break;
                 case "--test-framework":
                     if (i + 1 < args.length) {
                         config.setTestFramework(args[++i]);
@@ -105,6 +227,56 @@ public class AgentConfig {
                         config.setLlmProvider(args[++i]);
                     }
                     break;
+                case "--no-cache":
+                    config.setLlmCacheEnabled(false);
+                    break;
+                case "--stream":
+                    config.setLlmStreamingEnabled(true);
+                    break;
+                case "--requests-per-minute":
+                    if (i + 1 < args.length) {
+                        config.setLlmRequestsPerMinute(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--tokens-per-minute":
+                    if (i + 1 < args.length) {
+                        config.setLlmTokensPerMinute(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--retries":
+                    if (i + 1 < args.length) {
+                        config.setLlmRetryMaxAttempts(Integer.parseInt(args[++i]) + 1);
+                    }
+                    break;
+                case "--hedge":
+                    config.setLlmHedgingEnabled(true);
+                    break;
+                case "--max-output-tokens":
+                    if (i + 1 < args.length) {
+                        config.setLlmMaxOutputTokens(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--prompt-max-tokens":
+                    if (i + 1 < args.length) {
+                        config.setLlmPromptMaxTokens(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--debug-requirement":
+                    if (i + 1 < args.length) {
+                        config.setLlmDebugRequirementId(args[++i]);
+                    }
+                    break;
+                case "--llm-stub":
+                    config.setLlmStubEnabled(true);
+                    break;
+                case "--resume":
+                    if (i + 1 < args.length) {
+                        config.setResumeRunId(args[++i]);
+                    }
+                    break;
+                case "--full":
+                    config.setIncrementalEnabled(false);
+                    break;
                 case "--git-repo":
                     if (i + 1 < args.length) {
                         config.setGitRepositoryUrl(args[++i]);
@@ -149,11 +321,54 @@ public class AgentConfig {
             requirementsFolder = props.getProperty("requirements.folder", requirementsFolder);
             outputFolder = props.getProperty("output.folder", outputFolder);
             maxConcurrentTasks = Integer.parseInt(props.getProperty("max.concurrent.tasks", String.valueOf(maxConcurrentTasks)));
+            virtualThreadsEnabled = "virtual".equalsIgnoreCase(props.getProperty("execution.mode", virtualThreadsEnabled ? "virtual" : "platform"));
+            buildMaxConcurrency = Integer.parseInt(props.getProperty("build.max.concurrency", String.valueOf(buildMaxConcurrency)));
+            diskMaxConcurrency = Integer.parseInt(props.getProperty("disk.max.concurrency", String.valueOf(diskMaxConcurrency)));
+            compileBackend = props.getProperty("compile.backend", compileBackend);
+            compileClasspath = props.getProperty("compile.classpath", compileClasspath);
+            compileCacheEnabled = Boolean.parseBoolean(props.getProperty("compile.cache.enabled", String.valueOf(compileCacheEnabled)));
+            compileCacheMemoryEntries = Integer.parseInt(props.getProperty("compile.cache.memory.entries", String.valueOf(compileCacheMemoryEntries)));
+            compileCacheDiskMaxMb = Integer.parseInt(props.getProperty("compile.cache.disk.max.mb", String.valueOf(compileCacheDiskMaxMb)));
+            testBackend = props.getProperty("test.backend", testBackend);
+            testTimeoutMs = Long.parseLong(props.getProperty("test.timeout.ms", String.valueOf(testTimeoutMs)));
+            testWorkerMaxRuns = Integer.parseInt(props.getProperty("test.worker.max.runs", String.valueOf(testWorkerMaxRuns)));
+            testRunTimeoutMs = Long.parseLong(props.getProperty("test.run.timeout.ms", String.valueOf(testRunTimeoutMs)));
+            testMaxHeapMb = Integer.parseInt(props.getProperty("test.max.heap.mb", String.valueOf(testMaxHeapMb)));
+            mavenExecutable = props.getProperty("maven.executable", mavenExecutable);
+            mavenOffline = Boolean.parseBoolean(props.getProperty("maven.offline", String.valueOf(mavenOffline)));
+            mavenRepoLocal = props.getProperty("maven.repo.local", mavenRepoLocal);
             testFramework = props.getProperty("test.framework", testFramework);
             language = props.getProperty("language", language);
             llmApiKey = props.getProperty("llm.api.key", llmApiKey);
             llmApiUrl = props.getProperty("llm.api.url", llmApiUrl);
             llmModel = props.getProperty("llm.model", llmModel);
+            llmProvider = props.getProperty("llm.provider", llmProvider);
+            httpMaxConnectionsPerRoute = Integer.parseInt(props.getProperty("http.max.connections.per.route", String.valueOf(httpMaxConnectionsPerRoute)));
+            httpMaxConnectionsTotal = Integer.parseInt(props.getProperty("http.max.connections.total", String.valueOf(httpMaxConnectionsTotal)));
+            llmCacheEnabled = Boolean.parseBoolean(props.getProperty("llm.cache.enabled", String.valueOf(llmCacheEnabled)));
+            llmCacheMemoryEntries = Integer.parseInt(props.getProperty("llm.cache.memory.entries", String.valueOf(llmCacheMemoryEntries)));
+            llmCacheDiskMaxMb = Integer.parseInt(props.getProperty("llm.cache.disk.max.mb", String.valueOf(llmCacheDiskMaxMb)));
+            llmStreamingEnabled = Boolean.parseBoolean(props.getProperty("llm.streaming.enabled", String.valueOf(llmStreamingEnabled)));
+            llmRequestsPerMinute = Integer.parseInt(props.getProperty("llm.requests.per.minute", String.valueOf(llmRequestsPerMinute)));
+            llmTokensPerMinute = Integer.parseInt(props.getProperty("llm.tokens.per.minute", String.valueOf(llmTokensPerMinute)));
+            llmMaxConcurrency = Integer.parseInt(props.getProperty("llm.max.concurrency", String.valueOf(llmMaxConcurrency)));
+            llmRetryMaxAttempts = Integer.parseInt(props.getProperty("llm.retry.max.attempts", String.valueOf(llmRetryMaxAttempts)));
+            llmRetryBaseDelayMs = Long.parseLong(props.getProperty("llm.retry.base.delay.ms", String.valueOf(llmRetryBaseDelayMs)));
+            llmRetryMaxDelayMs = Long.parseLong(props.getProperty("llm.retry.max.delay.ms", String.valueOf(llmRetryMaxDelayMs)));
+            llmHedgingEnabled = Boolean.parseBoolean(props.getProperty("llm.hedging.enabled", String.valueOf(llmHedgingEnabled)));
+            llmMaxOutputTokens = Integer.parseInt(props.getProperty("llm.max.output.tokens", String.valueOf(llmMaxOutputTokens)));
+            llmPromptMaxTokens = Integer.parseInt(props.getProperty("llm.prompt.max.tokens", String.valueOf(llmPromptMaxTokens)));
+            llmPayloadLogSampleRate = Double.parseDouble(props.getProperty("llm.payload.log.sample.rate", String.valueOf(llmPayloadLogSampleRate)));
+            llmPayloadLogMaxBytes = Integer.parseInt(props.getProperty("llm.payload.log.max.bytes", String.valueOf(llmPayloadLogMaxBytes)));
+            llmDebugRequirementId = props.getProperty("llm.payload.log.requirement", llmDebugRequirementId);
+            llmStubEnabled = Boolean.parseBoolean(props.getProperty("llm.stub.enabled", String.valueOf(llmStubEnabled)));
+            llmStubPort = Integer.parseInt(props.getProperty("llm.stub.port", String.valueOf(llmStubPort)));
+            llmStubLatencyDistribution = props.getProperty("llm.stub.latency.distribution", llmStubLatencyDistribution);
+            llmStubLatencyMeanMs = Long.parseLong(props.getProperty("llm.stub.latency.mean.ms", String.valueOf(llmStubLatencyMeanMs)));
+            llmStubErrorRate = Double.parseDouble(props.getProperty("llm.stub.error.rate", String.valueOf(llmStubErrorRate)));
+            llmStubResponsesFolder = props.getProperty("llm.stub.responses.folder", llmStubResponsesFolder);
+            llmStubSeed = Long.parseLong(props.getProperty("llm.stub.seed", String.valueOf(llmStubSeed)));
+            incrementalEnabled = Boolean.parseBoolean(props.getProperty("incremental.enabled", String.valueOf(incrementalEnabled)));
 
             logger.info("Loaded configuration from file: {}", configFile);
         } catch (IOException e) {
@@ -201,14 +416,44 @@ public class AgentConfig {
         logger.info("Requirements Folder: {}", requirementsFolder);
         logger.info("Output Folder: {}", outputFolder);
         logger.info("Max Concurrent Tasks: {}", maxConcurrentTasks);
+        logger.info("Execution Mode: {}, max {} concurrent builds, {} concurrent disk writers",
+                virtualThreadsEnabled ? "virtual threads" : "platform threads", getBuildMaxConcurrency(), diskMaxConcurrency);
+        logger.info("Compile Backend: {}, Test Backend: {}, compilation cache {}", compileBackend,
+                getEffectiveTestBackend(), compileCacheEnabled ? "enabled" : "disabled");
+        logger.info("Test Limits: {} ms per test, {} ms per requirement, {} MB heap", testTimeoutMs, testRunTimeoutMs,
+                testMaxHeapMb);
+        if ("maven".equals(getEffectiveTestBackend())) {
+            logger.info("Maven Builds: {} launcher, {}, local repository {}", mavenExecutable,
+                    mavenOffline ? "offline" : "online", mavenRepoLocal != null ? mavenRepoLocal : "default");
+        }
         logger.info("Test Framework: {}", testFramework);
         logger.info("Language: {}", language);
         logger.info("LLM API Key configured: {}", llmApiKey != null && !llmApiKey.trim().isEmpty());
         logger.info("LLM API URL: {}", llmApiUrl);
         logger.info("LLM Model: {}", llmModel);
-        logger.info("LLM Provider: {}", llmProvider != null ? llmProvider : "openai");
+        logger.info("LLM Provider: {}", llmProvider != null ? llmProvider : "google");
         logger.info("Git Repository URL: {}", gitRepositoryUrl);
         logger.info("Git Branch: {}", gitBranch);
+        logger.info("HTTP Connections: {} per route, {} total", getHttpMaxConnectionsPerRoute(), getHttpMaxConnectionsTotal());
+        logger.info("LLM Response Cache: {}", llmCacheEnabled ? "enabled" : "disabled");
+        logger.info("LLM Streaming: {}", llmStreamingEnabled ? "enabled" : "disabled");
+        logger.info("LLM Rate Limits: {} requests/min, {} tokens/min, max concurrency {}",
+                llmRequestsPerMinute > 0 ? llmRequestsPerMinute : "unlimited",
+                llmTokensPerMinute > 0 ? llmTokensPerMinute : "unlimited", getLlmMaxConcurrency());
+        logger.info("LLM Retries: {} attempts, backoff {}-{} ms, hedging {}", llmRetryMaxAttempts,
+                llmRetryBaseDelayMs, llmRetryMaxDelayMs, llmHedgingEnabled ? "enabled" : "disabled");
+        logger.info("LLM Token Limits: {} output tokens, prompt budget {}", llmMaxOutputTokens,
+                llmPromptMaxTokens > 0 ? llmPromptMaxTokens + " tokens" : "unlimited");
+        logger.info("LLM Payload Logging: sample rate {}, max {} bytes, debug requirement {}", llmPayloadLogSampleRate,
+                llmPayloadLogMaxBytes, llmDebugRequirementId != null ? llmDebugRequirementId : "none");
+        logger.info("Incremental Runs: {}", incrementalEnabled ? "enabled" : "disabled");
+        if (resumeRunId != null) {
+            logger.info("Resuming Run: {}", resumeRunId);
+        }
+        if (llmStubEnabled) {
+            logger.info("LLM Stub: {} latency, mean {} ms, error rate {}, seed {}", llmStubLatencyDistribution,
+                    llmStubLatencyMeanMs, llmStubErrorRate, llmStubSeed);
+        }
         logger.info("=====================================");
     }
 
@@ -228,6 +473,12 @@ public class AgentConfig {
             throw new IllegalArgumentException("Max concurrent tasks must be greater than 0");
         }
 
+        // A thread cannot be killed, so tests running in the agent's JVM could outlive the limit
+        if ("in-process".equals(getEffectiveTestBackend()) && testRunTimeoutMs > 0) {
+            throw new IllegalArgumentException("test.run.timeout.ms cannot be enforced with test.backend=in-process; "
+                    + "use test.backend=worker, whose JVMs are killed at the limit, or set test.run.timeout.ms=0");
+        }
+
         // Create directories if they don't exist
         try {
             Files.createDirectories(Paths.get(requirementsFolder));
@@ -248,12 +499,31 @@ public class AgentConfig {
         System.out.println("  -r, --requirements-folder <path>  Folder containing requirements (default: requirements)");
         System.out.println("  -o, --output-folder <path>        Output folder for generated tests (default: generated-tests)");
         System.out.println("      --max-tasks <number>          Max concurrent tasks (default: 4)");
+        System.out.println("      --max-builds <number>         Max concurrent test builds (default: half the CPU cores)");
+        System.out.println("      --compile-backend <backend>   Compile generated code in-process (default) or with maven");
+        System.out.println("      --test-backend <backend>      Run generated tests in worker JVMs (default), in-process or with maven");
+        System.out.println("      --test-timeout <ms>           Time each generated test may take (default: 10000, 0 = no limit)");
+        System.out.println("      --run-timeout <ms>            Time the tests of one requirement may take (default: 120000, 0 with in-process)");
+        System.out.println("      --maven <executable>          Maven launcher for maven test builds (default: mvnd if installed, else mvn)");
+        System.out.println("      --virtual-threads             Run per-requirement work on virtual threads");
         System.out.println("      --test-framework <framework>  Test framework (default: junit5)");
         System.out.println("  -l, --language <language>         Programming language (default: java)");
         System.out.println("      --llm-api-key <key>           LLM API key");
         System.out.println("      --llm-api-url <url>           LLM API URL");
         System.out.println("      --llm-model <model>           LLM model name");
-        System.out.println("      --llm-provider <provider>     LLM provider (e.g., openai, anthropic)");
+        System.out.println("      --llm-provider <provider>     LLM provider: google (default) or openai");
+        System.out.println("      --llm-stub                    Answer LLM calls from an embedded local stub server");
+        System.out.println("      --resume <runId>              Resume an earlier run, skipping the stages it completed");
+        System.out.println("      --full                        Process every requirement, not only changed ones");
+        System.out.println("      --no-cache                    Disable the LLM response cache");
+        System.out.println("      --stream                      Stream test generation from the LLM");
+        System.out.println("      --requests-per-minute <n>     LLM request budget (default: unlimited)");
+        System.out.println("      --tokens-per-minute <n>       LLM token budget (default: unlimited)");
+        System.out.println("      --retries <n>                 Retries for transient LLM failures (default: 3)");
+        System.out.println("      --hedge                       Send a hedged LLM request when a call exceeds p95 latency");
+        System.out.println("      --max-output-tokens <n>       Max tokens generated per LLM call (default: 2048)");
+        System.out.println("      --prompt-max-tokens <n>       Prompt budget, larger inputs are condensed (default: 6000, 0 = unlimited)");
+        System.out.println("      --debug-requirement <id>      Log full LLM prompts and responses for one requirement");
         System.out.println("      --git-repo <url>              Git repository URL");
         System.out.println("      --git-branch <branch>         Git branch (default: main)");
         System.out.println("  -c, --config <file>               Configuration file");
@@ -355,4 +625,376 @@ public class AgentConfig {
     public void setGitBranch(String gitBranch) {
         this.gitBranch = gitBranch;
     }
+
+    /**
+     * Max pooled LLM connections per route. Each of the four LLM stages may run
+     * maxConcurrentTasks calls at once, so the default leaves room for all of them.
+     */
+    public int getHttpMaxConnectionsPerRoute() {
+        return httpMaxConnectionsPerRoute > 0 ? httpMaxConnectionsPerRoute : maxConcurrentTasks * 4;
+    }
+
+    public void setHttpMaxConnectionsPerRoute(int httpMaxConnectionsPerRoute) {
+        this.httpMaxConnectionsPerRoute = httpMaxConnectionsPerRoute;
+    }
+
+    /**
+     * Max pooled LLM connections across all routes
+     */
+    public int getHttpMaxConnectionsTotal() {
+        return httpMaxConnectionsTotal > 0 ? httpMaxConnectionsTotal : getHttpMaxConnectionsPerRoute() * 2;
+    }
+
+    public void setHttpMaxConnectionsTotal(int httpMaxConnectionsTotal) {
+        this.httpMaxConnectionsTotal = httpMaxConnectionsTotal;
+    }
+
+    public boolean isLlmCacheEnabled() {
+        return llmCacheEnabled;
+    }
+
+    public void setLlmCacheEnabled(boolean llmCacheEnabled) {
+        this.llmCacheEnabled = llmCacheEnabled;
+    }
+
+    public int getLlmCacheMemoryEntries() {
+        return llmCacheMemoryEntries;
+    }
+
+    public void setLlmCacheMemoryEntries(int llmCacheMemoryEntries) {
+        this.llmCacheMemoryEntries = llmCacheMemoryEntries;
+    }
+
+    public int getLlmCacheDiskMaxMb() {
+        return llmCacheDiskMaxMb;
+    }
+
+    public void setLlmCacheDiskMaxMb(int llmCacheDiskMaxMb) {
+        this.llmCacheDiskMaxMb = llmCacheDiskMaxMb;
+    }
+
+    public boolean isLlmStreamingEnabled() {
+        return llmStreamingEnabled;
+    }
+
+    public void setLlmStreamingEnabled(boolean llmStreamingEnabled) {
+        this.llmStreamingEnabled = llmStreamingEnabled;
+    }
+
+    public int getLlmRequestsPerMinute() {
+        return llmRequestsPerMinute;
+    }
+
+    public void setLlmRequestsPerMinute(int llmRequestsPerMinute) {
+        this.llmRequestsPerMinute = llmRequestsPerMinute;
+    }
+
+    public int getLlmTokensPerMinute() {
+        return llmTokensPerMinute;
+    }
+
+    public void setLlmTokensPerMinute(int llmTokensPerMinute) {
+        this.llmTokensPerMinute = llmTokensPerMinute;
+    }
+
+    /**
+     * Upper bound for concurrent LLM calls; the adaptive limiter never exceeds it
+     */
+    public int getLlmMaxConcurrency() {
+        return llmMaxConcurrency > 0 ? llmMaxConcurrency : getHttpMaxConnectionsPerRoute();
+    }
+
+    public void setLlmMaxConcurrency(int llmMaxConcurrency) {
+        this.llmMaxConcurrency = llmMaxConcurrency;
+    }
+
+    public int getLlmRetryMaxAttempts() {
+        return llmRetryMaxAttempts;
+    }
+
+    public void setLlmRetryMaxAttempts(int llmRetryMaxAttempts) {
+        this.llmRetryMaxAttempts = llmRetryMaxAttempts;
+    }
+
+    public long getLlmRetryBaseDelayMs() {
+        return llmRetryBaseDelayMs;
+    }
+
+    public void setLlmRetryBaseDelayMs(long llmRetryBaseDelayMs) {
+        this.llmRetryBaseDelayMs = llmRetryBaseDelayMs;
+    }
+
+    public long getLlmRetryMaxDelayMs() {
+        return llmRetryMaxDelayMs;
+    }
+
+    public void setLlmRetryMaxDelayMs(long llmRetryMaxDelayMs) {
+        this.llmRetryMaxDelayMs = llmRetryMaxDelayMs;
+    }
+
+    public boolean isLlmHedgingEnabled() {
+        return llmHedgingEnabled;
+    }
+
+    public void setLlmHedgingEnabled(boolean llmHedgingEnabled) {
+        this.llmHedgingEnabled = llmHedgingEnabled;
+    }
+
+    public int getLlmMaxOutputTokens() {
+        return llmMaxOutputTokens;
+    }
+
+    public void setLlmMaxOutputTokens(int llmMaxOutputTokens) {
+        this.llmMaxOutputTokens = llmMaxOutputTokens;
+    }
+
+    public int getLlmPromptMaxTokens() {
+        return llmPromptMaxTokens;
+    }
+
+    public void setLlmPromptMaxTokens(int llmPromptMaxTokens) {
+        this.llmPromptMaxTokens = llmPromptMaxTokens;
+    }
+
+    public double getLlmPayloadLogSampleRate() {
+        return llmPayloadLogSampleRate;
+    }
+
+    public void setLlmPayloadLogSampleRate(double llmPayloadLogSampleRate) {
+        this.llmPayloadLogSampleRate = llmPayloadLogSampleRate;
+    }
+
+    public int getLlmPayloadLogMaxBytes() {
+        return llmPayloadLogMaxBytes;
+    }
+
+    public void setLlmPayloadLogMaxBytes(int llmPayloadLogMaxBytes) {
+        this.llmPayloadLogMaxBytes = llmPayloadLogMaxBytes;
+    }
+
+    public String getLlmDebugRequirementId() {
+        return llmDebugRequirementId;
+    }
+
+    public void setLlmDebugRequirementId(String llmDebugRequirementId) {
+        this.llmDebugRequirementId = llmDebugRequirementId;
+    }
+
+    public boolean isLlmStubEnabled() {
+        return llmStubEnabled;
+    }
+
+    public void setLlmStubEnabled(boolean llmStubEnabled) {
+        this.llmStubEnabled = llmStubEnabled;
+    }
+
+    public int getLlmStubPort() {
+        return llmStubPort;
+    }
+
+    public void setLlmStubPort(int llmStubPort) {
+        this.llmStubPort = llmStubPort;
+    }
+
+    public String getLlmStubLatencyDistribution() {
+        return llmStubLatencyDistribution;
+    }
+
+    public void setLlmStubLatencyDistribution(String llmStubLatencyDistribution) {
+        this.llmStubLatencyDistribution = llmStubLatencyDistribution;
+    }
+
+    public long getLlmStubLatencyMeanMs() {
+        return llmStubLatencyMeanMs;
+    }
+
+    public void setLlmStubLatencyMeanMs(long llmStubLatencyMeanMs) {
+        this.llmStubLatencyMeanMs = llmStubLatencyMeanMs;
+    }
+
+    public double getLlmStubErrorRate() {
+        return llmStubErrorRate;
+    }
+
+    public void setLlmStubErrorRate(double llmStubErrorRate) {
+        this.llmStubErrorRate = llmStubErrorRate;
+    }
+
+    public String getLlmStubResponsesFolder() {
+        return llmStubResponsesFolder;
+    }
+
+    public void setLlmStubResponsesFolder(String llmStubResponsesFolder) {
+        this.llmStubResponsesFolder = llmStubResponsesFolder;
+    }
+
+    public long getLlmStubSeed() {
+        return llmStubSeed;
+    }
+
+    public void setLlmStubSeed(long llmStubSeed) {
+        this.llmStubSeed = llmStubSeed;
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * Every build runs Maven and a forked test JVM, each busy with JIT and GC threads, so by
+     * default one build is allowed per two processors
+     */
+    public int getBuildMaxConcurrency() {
+        return buildMaxConcurrency > 0 ? buildMaxConcurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public void setBuildMaxConcurrency(int buildMaxConcurrency) {
+        this.buildMaxConcurrency = buildMaxConcurrency;
+    }
+
+    public int getDiskMaxConcurrency() {
+        return diskMaxConcurrency;
+    }
+
+    public void setDiskMaxConcurrency(int diskMaxConcurrency) {
+        this.diskMaxConcurrency = diskMaxConcurrency;
+    }
+
+    public String getResumeRunId() {
+        return resumeRunId;
+    }
+
+    public void setResumeRunId(String resumeRunId) {
+        this.resumeRunId = resumeRunId;
+    }
+
+    public boolean isIncrementalEnabled() {
+        return incrementalEnabled;
+    }
+
+    public void setIncrementalEnabled(boolean incrementalEnabled) {
+        this.incrementalEnabled = incrementalEnabled;
+    }
+
+    public String getCompileBackend() {
+        return compileBackend;
+    }
+
+    public void setCompileBackend(String compileBackend) {
+        this.compileBackend = compileBackend;
+    }
+
+    /**
+     * Check if generated code is compiled inside the agent before Maven runs the tests
+     */
+    public boolean isInProcessCompileEnabled() {
+        return !"maven".equalsIgnoreCase(compileBackend);
+    }
+
+    public String getCompileClasspath() {
+        return compileClasspath;
+    }
+
+    public void setCompileClasspath(String compileClasspath) {
+        this.compileClasspath = compileClasspath;
+    }
+
+    public String getTestBackend() {
+        return testBackend;
+    }
+
+    public void setTestBackend(String testBackend) {
+        this.testBackend = testBackend;
+    }
+
+    /**
+     * Get the backend that actually runs the tests: worker and in-process need the in-process compiler
+     */
+    public String getEffectiveTestBackend() {
+        return isInProcessCompileEnabled() ? testBackend.toLowerCase() : "maven";
+    }
+
+    public long getTestTimeoutMs() {
+        return testTimeoutMs;
+    }
+
+    public void setTestTimeoutMs(long testTimeoutMs) {
+        this.testTimeoutMs = testTimeoutMs;
+    }
+
+    public int getTestWorkerMaxRuns() {
+        return testWorkerMaxRuns;
+    }
+
+    public void setTestWorkerMaxRuns(int testWorkerMaxRuns) {
+        this.testWorkerMaxRuns = testWorkerMaxRuns;
+    }
+
+    public long getTestRunTimeoutMs() {
+        return testRunTimeoutMs;
+    }
+
+    public void setTestRunTimeoutMs(long testRunTimeoutMs) {
+        this.testRunTimeoutMs = testRunTimeoutMs;
+    }
+
+    public int getTestMaxHeapMb() {
+        return testMaxHeapMb;
+    }
+
+    public void setTestMaxHeapMb(int testMaxHeapMb) {
+        this.testMaxHeapMb = testMaxHeapMb;
+    }
+
+    public String getMavenExecutable() {
+        return mavenExecutable;
+    }
+
+    public void setMavenExecutable(String mavenExecutable) {
+        this.mavenExecutable = mavenExecutable;
+    }
+
+    public boolean isMavenOffline() {
+        return mavenOffline;
+    }
+
+    public void setMavenOffline(boolean mavenOffline) {
+        this.mavenOffline = mavenOffline;
+    }
+
+    public String getMavenRepoLocal() {
+        return mavenRepoLocal;
+    }
+
+    public void setMavenRepoLocal(String mavenRepoLocal) {
+        this.mavenRepoLocal = mavenRepoLocal;
+    }
+
+    public boolean isCompileCacheEnabled() {
+        return compileCacheEnabled;
+    }
+
+    public void setCompileCacheEnabled(boolean compileCacheEnabled) {
+        this.compileCacheEnabled = compileCacheEnabled;
+    }
+
+    public int getCompileCacheMemoryEntries() {
+        return compileCacheMemoryEntries;
+    }
+
+    public void setCompileCacheMemoryEntries(int compileCacheMemoryEntries) {
+        this.compileCacheMemoryEntries = compileCacheMemoryEntries;
+    }
+
+    public int getCompileCacheDiskMaxMb() {
+        return compileCacheDiskMaxMb;
+    }
+
+    public void setCompileCacheDiskMaxMb(int compileCacheDiskMaxMb) {
+        this.compileCacheDiskMaxMb = compileCacheDiskMaxMb;
+    }
 }
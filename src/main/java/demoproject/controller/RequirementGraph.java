@@ -0,0 +1,222 @@
+package demoproject.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.models.Requirement;
+
+/**
+ * Dependency DAG of a requirement set, built from each requirement's "Dependencies" section.
+ * A dependency entry links to another requirement when it names that requirement's ID or
+ * equals its title; anything else is an external dependency and is ignored. Dependencies
+ * that form a cycle are reported and dropped so the rest of the graph can still be scheduled.
+ */
+public class RequirementGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequirementGraph.class);
+
+    private final List<Requirement> requirements;
+    private final Map<String, Set<String>> prerequisites = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Integer> criticalPathLengths = new HashMap<>();
+    private final Set<String> cycleMembers = new LinkedHashSet<>();
+
+    public RequirementGraph(List<Requirement> requirements) {
+        this.requirements = requirements;
+        for (Requirement requirement : requirements) {
+            prerequisites.put(requirement.getId(), new LinkedHashSet<>());
+            dependents.put(requirement.getId(), new LinkedHashSet<>());
+        }
+        linkDependencies();
+        List<String> topologicalOrder = breakCycles();
+        computeCriticalPaths(topologicalOrder);
+    }
+
+    /**
+     * Resolve every dependency entry that refers to another requirement of the set
+     */
+    private void linkDependencies() {
+        Map<String, Pattern> idPatterns = new HashMap<>();
+        Map<String, String> idsByTitle = new HashMap<>();
+        for (Requirement requirement : requirements) {
+            idPatterns.put(requirement.getId(), Pattern.compile(
+                    "(?<![A-Za-z0-9-])" + Pattern.quote(requirement.getId()) + "(?![A-Za-z0-9-])", Pattern.CASE_INSENSITIVE));
+            if (requirement.getTitle() != null) {
+                idsByTitle.put(requirement.getTitle().trim().toLowerCase(Locale.ROOT), requirement.getId());
+            }
+        }
+
+        for (Requirement requirement : requirements) {
+            for (String dependency : requirement.getDependencies()) {
+                String titleMatch = idsByTitle.get(dependency.trim().toLowerCase(Locale.ROOT));
+                if (titleMatch != null) {
+                    addEdge(titleMatch, requirement.getId());
+                }
+                idPatterns.forEach((id, pattern) -> {
+                    if (pattern.matcher(dependency).find()) {
+                        addEdge(id, requirement.getId());
+                    }
+                });
+            }
+        }
+    }
+
+    private void addEdge(String prerequisiteId, String dependentId) {
+        if (!prerequisiteId.equals(dependentId)) {
+            prerequisites.get(dependentId).add(prerequisiteId);
+            dependents.get(prerequisiteId).add(dependentId);
+        }
+    }
+
+    /**
+     * Topologically sort with Kahn's algorithm. Requirements left over lie on or behind a
+     * cycle; the edges among them are dropped and the sort is finished.
+     */
+    private List<String> breakCycles() {
+        Map<String, Integer> pending = new HashMap<>();
+        prerequisites.forEach((id, ids) -> pending.put(id, ids.size()));
+        Deque<String> ready = new ArrayDeque<>();
+        pending.forEach((id, count) -> {
+            if (count == 0) {
+                ready.add(id);
+            }
+        });
+
+        List<String> order = new ArrayList<>();
+        drain(ready, pending, order);
+        if (order.size() < requirements.size()) {
+            for (Requirement requirement : requirements) {
+                if (!order.contains(requirement.getId()) && isOnCycle(requirement.getId())) {
+                    cycleMembers.add(requirement.getId());
+                }
+            }
+            logger.error("Dependency cycle among requirements {}; scheduling them without those dependencies", cycleMembers);
+            for (String id : cycleMembers) {
+                for (String prerequisiteId : List.copyOf(prerequisites.get(id))) {
+                    if (cycleMembers.contains(prerequisiteId)) {
+                        prerequisites.get(id).remove(prerequisiteId);
+                        dependents.get(prerequisiteId).remove(id);
+                        pending.merge(id, -1, Integer::sum);
+                    }
+                }
+                if (pending.get(id) == 0) {
+                    ready.add(id);
+                }
+            }
+            drain(ready, pending, order);
+        }
+        return order;
+    }
+
+    private void drain(Deque<String> ready, Map<String, Integer> pending, List<String> order) {
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            order.add(id);
+            for (String dependentId : dependents.get(id)) {
+                if (pending.merge(dependentId, -1, Integer::sum) == 0) {
+                    ready.add(dependentId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a requirement can reach itself through its prerequisites
+     */
+    private boolean isOnCycle(String id) {
+        Deque<String> toVisit = new ArrayDeque<>(prerequisites.get(id));
+        Set<String> visited = new LinkedHashSet<>();
+        while (!toVisit.isEmpty()) {
+            String next = toVisit.poll();
+            if (next.equals(id)) {
+                return true;
+            }
+            if (visited.add(next)) {
+                toVisit.addAll(prerequisites.get(next));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Length of the longest chain of requirements that starts at each requirement, counting itself
+     */
+    private void computeCriticalPaths(List<String> topologicalOrder) {
+        for (int i = topologicalOrder.size() - 1; i >= 0; i--) {
+            String id = topologicalOrder.get(i);
+            int longestDependentChain = dependents.get(id).stream()
+                    .mapToInt(criticalPathLengths::get)
+                    .max()
+                    .orElse(0);
+            criticalPathLengths.put(id, longestDependentChain + 1);
+        }
+    }
+
+    /**
+     * Get the requirements in the order they should be started: longest critical path first,
+     * then file order. Every prerequisite comes before its dependents.
+     */
+    public List<Requirement> getSchedulingOrder() {
+        Map<String, Integer> fileOrder = new HashMap<>();
+        for (int i = 0; i < requirements.size(); i++) {
+            fileOrder.put(requirements.get(i).getId(), i);
+        }
+        List<Requirement> order = new ArrayList<>(requirements);
+        order.sort(Comparator.comparingInt((Requirement r) -> -getCriticalPathLength(r.getId()))
+                .thenComparingInt(r -> fileOrder.get(r.getId())));
+        return order;
+    }
+
+    public List<Requirement> getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Get the IDs of the requirements that must be generated before the given one
+     */
+    public Set<String> getPrerequisites(String requirementId) {
+        return prerequisites.getOrDefault(requirementId, Set.of());
+    }
+
+    /**
+     * Get the IDs of the requirements that directly depend on the given one
+     */
+    public Set<String> getDependents(String requirementId) {
+        return dependents.getOrDefault(requirementId, Set.of());
+    }
+
+    public int getCriticalPathLength(String requirementId) {
+        return criticalPathLengths.getOrDefault(requirementId, 1);
+    }
+
+    /**
+     * Get the length of the longest dependency chain in the set
+     */
+    public int getLongestPathLength() {
+        return criticalPathLengths.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    public int getEdgeCount() {
+        return prerequisites.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Get the IDs of the requirements whose mutual dependencies were dropped to break a cycle
+     */
+    public Set<String> getCycleMembers() {
+        return cycleMembers;
+    }
+}
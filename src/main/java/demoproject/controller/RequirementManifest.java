@@ -0,0 +1,179 @@
+package demoproject.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import demoproject.config.AgentConfig;
+import demoproject.models.Requirement;
+
+/**
+ * Fingerprints of the requirements processed by earlier runs, and the run whose journal holds
+ * each one's outputs. A requirement whose fingerprint is unchanged is not processed again:
+ * its outputs are carried over into the current run's journal, so the pipeline skips it.
+ */
+public class RequirementManifest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequirementManifest.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Bump when the generation prompts change, so every requirement is generated again */
+    private static final int PROMPT_TEMPLATE_VERSION = 1;
+
+    private final Path file;
+    private final AgentConfig config;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    private RequirementManifest(Path file, AgentConfig config) {
+        this.file = file;
+        this.config = config;
+    }
+
+    /**
+     * Load the manifest from a file, starting empty if it does not exist or cannot be read
+     */
+    public static RequirementManifest load(Path file, AgentConfig config) {
+        RequirementManifest manifest = new RequirementManifest(file, config);
+        if (!Files.isRegularFile(file)) {
+            return manifest;
+        }
+        try {
+            JsonNode requirements = objectMapper.readTree(file.toFile()).path("requirements");
+            requirements.fields().forEachRemaining(field -> manifest.entries.put(field.getKey(),
+                    new Entry(field.getValue().path("fingerprint").asText(), field.getValue().path("runId").asText())));
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable requirement manifest {}", file, e);
+        }
+        return manifest;
+    }
+
+    /**
+     * Carry the outputs of unchanged requirements over into the journal of this run.
+     * A requirement is processed again when it is new or changed, when its project folder
+     * or journaled outputs are gone, or when any requirement it depends on is processed again.
+     *
+     * @return the number of requirements reused
+     */
+    public int reuseUnchanged(RequirementGraph graph, RunJournal journal, Path runsFolder) {
+        Map<String, RunJournal> priorJournals = new HashMap<>();
+        Map<String, RunJournal> reusable = new HashMap<>();
+        Set<String> stale = new LinkedHashSet<>();
+        for (Requirement requirement : graph.getRequirements()) {
+            Entry entry = entries.get(requirement.getId());
+            RunJournal prior = entry != null && entry.fingerprint.equals(fingerprint(requirement))
+                    ? priorJournals.computeIfAbsent(entry.runId, runId -> RunJournal.read(runsFolder, runId))
+                    : null;
+            if (prior != null && prior.isCompleted(requirement.getId()) && Files.isDirectory(projectFolder(requirement))) {
+                reusable.put(requirement.getId(), prior);
+            } else {
+                stale.add(requirement.getId());
+            }
+        }
+
+        Deque<String> toVisit = new ArrayDeque<>(stale);
+        while (!toVisit.isEmpty()) {
+            for (String dependentId : graph.getDependents(toVisit.poll())) {
+                if (stale.add(dependentId)) {
+                    toVisit.add(dependentId);
+                }
+            }
+        }
+
+        int reused = 0;
+        for (Requirement requirement : graph.getRequirements()) {
+            if (!stale.contains(requirement.getId())) {
+                journal.copyFrom(reusable.get(requirement.getId()), requirement.getId());
+                reused++;
+            }
+        }
+        logger.info("Incremental run: reusing {} unchanged requirements, processing {}", reused, stale.size());
+        return reused;
+    }
+
+    /**
+     * Point every requirement that completed all stages at this run, drop the rest, and save
+     */
+    public void update(List<Requirement> requirements, RunJournal journal) {
+        entries.clear();
+        for (Requirement requirement : requirements) {
+            if (journal.isCompleted(requirement.getId())) {
+                entries.put(requirement.getId(), new Entry(fingerprint(requirement), journal.getRunId()));
+            }
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode requirementsNode = root.putObject("requirements");
+        entries.forEach((id, entry) -> requirementsNode.putObject(id)
+                .put("fingerprint", entry.fingerprint)
+                .put("runId", entry.runId));
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "manifest", ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), root);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to save requirement manifest {}", file, e);
+        }
+    }
+
+    /**
+     * Hash the content of a requirement that generation depends on, plus the generation settings
+     */
+    String fingerprint(Requirement requirement) {
+        StringBuilder content = new StringBuilder();
+        append(content, requirement.getTitle());
+        append(content, requirement.getDescription());
+        requirement.getAcceptanceCriteria().forEach(criterion -> append(content, criterion));
+        append(content, "--");
+        requirement.getDependencies().forEach(dependency -> append(content, dependency));
+        append(content, "--");
+        append(content, config.getLlmProvider());
+        append(content, config.getLlmModel());
+        append(content, config.getTestFramework());
+        append(content, config.getLanguage());
+        append(content, String.valueOf(PROMPT_TEMPLATE_VERSION));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Append a value with whitespace normalized, so reformatting a requirement does not change it
+     */
+    private static void append(StringBuilder content, String value) {
+        content.append(value != null ? value.trim().replaceAll("\\s+", " ") : "").append('\u0000');
+    }
+
+    private Path projectFolder(Requirement requirement) {
+        String projectName = requirement.getId().replaceAll("[^a-zA-Z0-9-]", "-").toLowerCase();
+        return Paths.get(config.getOutputFolder(), projectName);
+    }
+
+    private record Entry(String fingerprint, String runId) {
+    }
+}
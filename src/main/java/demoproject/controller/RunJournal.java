@@ -0,0 +1,267 @@
+package demoproject.controller;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import demoproject.models.GeneratedTest;
+import demoproject.models.ProductionCode;
+import demoproject.models.TestResult;
+import demoproject.models.ValidationReport;
+
+/**
+ * Append-only journal of the stage outputs of one workflow run, one JSON line per completed
+ * stage of a requirement. A run that dies part way can be resumed from its journal, reusing
+ * every stage output already recorded instead of generating it again.
+ */
+public class RunJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunJournal.class);
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final ObjectMapper objectMapper = createObjectMapper();
+
+    /**
+     * Pipeline stages whose output is journaled. An output only counts as completed when the
+     * stage actually did its work; generation and infrastructure failures are retried on resume.
+     */
+    public enum Stage {
+        TEST(GeneratedTest.class, output -> ((GeneratedTest) output).getStatus() != GeneratedTest.TestStatus.FAILED),
+        CODE(ProductionCode.class, output -> ((ProductionCode) output).getStatus() != ProductionCode.CodeStatus.FAILED),
+        REFACTOR(ProductionCode.class, output -> ((ProductionCode) output).getStatus() != ProductionCode.CodeStatus.FAILED),
+        RUN(TestResult.class, output -> ((TestResult) output).getErrorMessage() == null),
+        VALIDATE(ValidationReport.class, output -> ((ValidationReport) output).isValidationCompleted());
+
+        private final Class<?> outputType;
+        private final Predicate<Object> completed;
+
+        Stage(Class<?> outputType, Predicate<Object> completed) {
+            this.outputType = outputType;
+            this.completed = completed;
+        }
+
+        public boolean isCompleted(Object output) {
+            return output != null && completed.test(output);
+        }
+    }
+
+    private final String runId;
+    private final Path file;
+    private final Map<String, Object> outputs = new ConcurrentHashMap<>();
+    private final BufferedWriter writer;
+
+    private RunJournal(String runId, Path file, boolean writable) throws IOException {
+        this.runId = runId;
+        this.file = file;
+        this.writer = writable
+                ? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : null;
+    }
+
+    /**
+     * Start the journal of a new run in the given directory
+     */
+    public static RunJournal start(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            String baseId = LocalDateTime.now().format(RUN_ID_FORMAT);
+            String runId = baseId;
+            for (int suffix = 2; Files.exists(journalFile(directory, runId)); suffix++) {
+                runId = baseId + "-" + suffix;
+            }
+            return new RunJournal(runId, journalFile(directory, runId), true);
+        } catch (IOException e) {
+            throw new RuntimeException("Creating run journal failed", e);
+        }
+    }
+
+    /**
+     * Reopen the journal of an earlier run, loading the stage outputs it recorded
+     */
+    public static RunJournal resume(Path directory, String runId) {
+        Path file = journalFile(directory, runId);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No journal for run " + runId + " in " + directory);
+        }
+        RunJournal journal = open(runId, file, true);
+        logger.info("Resuming run {} with {} completed stages", runId, journal.outputs.size());
+        return journal;
+    }
+
+    /**
+     * Read the journal of an earlier run without appending to it, or return null if it is gone
+     */
+    public static RunJournal read(Path directory, String runId) {
+        Path file = journalFile(directory, runId);
+        return Files.isRegularFile(file) ? open(runId, file, false) : null;
+    }
+
+    private static RunJournal open(String runId, Path file, boolean writable) {
+        try {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            RunJournal journal = new RunJournal(runId, file, writable);
+            List<String> lines = content.lines().toList();
+            for (int i = 0; i < lines.size(); i++) {
+                journal.load(lines.get(i), i + 1);
+            }
+            if (writable && !content.isEmpty() && !content.endsWith("\n")) {
+                // Terminate a line cut short by a crash so new entries start on their own line
+                journal.writer.newLine();
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new RuntimeException("Reading run journal failed", e);
+        }
+    }
+
+    private static Path journalFile(Path directory, String runId) {
+        return directory.resolve(runId + ".jsonl");
+    }
+
+    private void load(String line, int lineNumber) {
+        if (line.isBlank()) {
+            return;
+        }
+        try {
+            JsonNode entry = objectMapper.readTree(line);
+            Stage stage = Stage.valueOf(entry.path("stage").asText());
+            Object output = objectMapper.treeToValue(entry.path("output"), stage.outputType);
+            outputs.put(key(entry.path("requirement").asText(), stage), output);
+        } catch (IOException | IllegalArgumentException e) {
+            // The run may have died in the middle of writing its last line
+            logger.warn("Skipping unreadable entry at line {} of {}", lineNumber, file);
+        }
+    }
+
+    /**
+     * Get the recorded output of a stage, or null if the stage has not completed
+     */
+    public <T> T get(String requirementId, Stage stage, Class<T> outputType) {
+        return outputType.cast(outputs.get(key(requirementId, stage)));
+    }
+
+    /**
+     * Append the output of a completed stage and flush it, so it survives the process dying
+     */
+    public void record(String requirementId, Stage stage, Object output) {
+        if (writer == null) {
+            throw new IllegalStateException("Run journal " + runId + " is read-only");
+        }
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("requirement", requirementId);
+        entry.put("stage", stage.name());
+        entry.set("output", objectMapper.valueToTree(output));
+        String line = entry.toString();
+        synchronized (writer) {
+            try {
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                logger.warn("Failed to journal {} output of requirement {}", stage, requirementId, e);
+                return;
+            }
+        }
+        outputs.put(key(requirementId, stage), output);
+    }
+
+    /**
+     * Check if every stage of a requirement has completed
+     */
+    public boolean isCompleted(String requirementId) {
+        for (Stage stage : Stage.values()) {
+            if (!outputs.containsKey(key(requirementId, stage))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record the stage outputs another run journaled for a requirement that this run lacks
+     */
+    public void copyFrom(RunJournal source, String requirementId) {
+        for (Stage stage : Stage.values()) {
+            Object output = source.outputs.get(key(requirementId, stage));
+            if (output != null && !outputs.containsKey(key(requirementId, stage))) {
+                record(requirementId, stage, output);
+            }
+        }
+    }
+
+    private static String key(String requirementId, Stage stage) {
+        return requirementId + "/" + stage;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close run journal {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Map model fields directly, so derived getters are not written and no setters are needed
+     */
+    private static ObjectMapper createObjectMapper() {
+        SimpleModule dates = new SimpleModule();
+        dates.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeString(value.toString());
+            }
+        });
+        dates.addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDateTime.parse(parser.getValueAsString());
+            }
+        });
+        return new ObjectMapper()
+                .registerModule(dates)
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
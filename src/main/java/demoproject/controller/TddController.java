@@ -1,9 +1,10 @@
 package demoproject.controller;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +16,9 @@ import demoproject.models.Requirement;
 import demoproject.models.TestResult;
 import demoproject.models.ValidationReport;
 import demoproject.services.CodeGenerator;
+import demoproject.services.LlmHttpTransport;
+import demoproject.services.LlmService;
+import demoproject.services.LlmStubServer;
 import demoproject.services.RefactorEngine;
 import demoproject.services.RequirementsReader;
 import demoproject.services.TestGenerator;
@@ -36,17 +40,40 @@ public class TddController {
     private final TestRunner testRunner;
     private final Validator validator;
     private final AgentConfig config;
-    private final ExecutorService executorService;
+    private final LlmService llmService;
+    private final TddPipeline pipeline;
+    private final LlmStubServer stubServer;
     
     public TddController(AgentConfig config) {
         this.config = config;
+        this.stubServer = config.isLlmStubEnabled() ? startStubServer(config) : null;
+        // One LLM client shared by every stage so they draw from the same connection pool
+        this.llmService = new LlmService(config);
         this.requirementsReader = new RequirementsReader(config);
-        this.testGenerator = new TestGenerator(config);
-        this.codeGenerator = new CodeGenerator(config);
-        this.refactorEngine = new RefactorEngine(config);
+        this.testGenerator = new TestGenerator(config, llmService);
+        this.codeGenerator = new CodeGenerator(config, llmService);
+        this.refactorEngine = new RefactorEngine(config, llmService);
         this.testRunner = new TestRunner(config);
-        this.validator = new Validator(config);
-        this.executorService = Executors.newFixedThreadPool(config.getMaxConcurrentTasks());
+        this.validator = new Validator(config, llmService);
+        this.pipeline = new TddPipeline(testGenerator, codeGenerator, refactorEngine, testRunner, validator, config);
+    }
+    
+    /**
+     * Start the local LLM stand-in and point the configuration at it
+     */
+    private static LlmStubServer startStubServer(AgentConfig config) {
+        try {
+            return LlmStubServer.startFor(config);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start LLM stub server", e);
+        }
+    }
+    
+    /**
+     * Register a listener for streamed test generation progress
+     */
+    public void setProgressListener(TestGenerator.GenerationProgressListener progressListener) {
+        testGenerator.setProgressListener(progressListener);
     }
     
     /**
@@ -55,30 +82,44 @@ public class TddController {
     public TddWorkflowResult executeTddWorkflow() {
         logger.info("Starting TDD workflow execution");
         
-        try {
+        try (RunJournal journal = openJournal()) {
             // Step 1: Parse Requirements
             List<Requirement> requirements = parseRequirements();
             logger.info("Parsed {} requirements", requirements.size());
             
-            // Step 2: Generate Test Cases
-            List<GeneratedTest> tests = generateTestCases(requirements);
-            logger.info("Generated {} test cases", tests.size());
+            // Steps 2-6: Generate tests, generate code, refactor, run tests and validate,
+            // pipelined so each requirement moves on as soon as its previous step is done
+            // Unchanged requirements reuse the outputs of the run that last processed them
+            RequirementGraph graph = new RequirementGraph(requirements);
+            RequirementManifest manifest = RequirementManifest.load(runsFolder().resolve("manifest.json"), config);
+            if (config.isIncrementalEnabled()) {
+                manifest.reuseUnchanged(graph, journal, runsFolder());
+            }
             
-            // Step 3: Generate Production Code
-            List<ProductionCode> productionCodes = generateProductionCode(requirements, tests);
-            logger.info("Generated {} production code files", productionCodes.size());
-            
-            // Step 4: Refactor Code
-            List<ProductionCode> refactoredCodes = refactorCode(productionCodes, tests);
-            logger.info("Refactored {} production code files", refactoredCodes.size());
-            
-            // Step 5: Run Tests
-            List<TestResult> testResults = runTests(tests, refactoredCodes);
-            logger.info("Executed {} test runs", testResults.size());
-            
-            // Step 6: Validate Results
-            List<ValidationReport> validationReports = validateResults(requirements, tests, refactoredCodes, testResults);
-            logger.info("Generated {} validation reports", validationReports.size());
+            // Every completed step is journaled, so a failed run can be resumed with --resume <runId>
+            List<TddPipeline.RequirementOutcome> outcomes = pipeline.run(graph, journal);
+            manifest.update(requirements, journal);
+            List<GeneratedTest> tests = new ArrayList<>();
+            List<ProductionCode> refactoredCodes = new ArrayList<>();
+            List<TestResult> testResults = new ArrayList<>();
+            List<ValidationReport> validationReports = new ArrayList<>();
+            for (TddPipeline.RequirementOutcome outcome : outcomes) {
+                tests.add(outcome.getTest());
+                refactoredCodes.add(outcome.getProductionCode());
+                testResults.add(outcome.getTestResult());
+                validationReports.add(outcome.getValidationReport());
+            }
+            logger.info("Generated {} test cases and {} production code files, executed {} test runs, {} validation reports",
+                    tests.size(), refactoredCodes.size(), testResults.size(), validationReports.size());
+
+            if (llmService.getResponseCache() != null) {
+                logger.info(llmService.getResponseCache().getSummary());
+            }
+            if (testRunner.getCompilationCache() != null) {
+                logger.info(testRunner.getCompilationCache().getSummary());
+            }
+            logger.info("LLM calls coalesced with identical in-flight calls: {}", llmService.getCoalescedCalls());
+            logger.info(llmService.getUsageTracker().getSummary());
             
             return new TddWorkflowResult(requirements, tests, refactoredCodes, testResults, validationReports);
             
@@ -88,6 +129,21 @@ public class TddController {
         }
     }
     
+    /**
+     * Start the journal of this run, or reopen the one of the run being resumed
+     */
+    private RunJournal openJournal() {
+        RunJournal journal = config.getResumeRunId() != null
+                ? RunJournal.resume(runsFolder(), config.getResumeRunId())
+                : RunJournal.start(runsFolder());
+        logger.info("Run ID: {} (journal: {})", journal.getRunId(), journal.getFile());
+        return journal;
+    }
+    
+    private Path runsFolder() {
+        return Paths.get(config.getOutputFolder(), ".runs");
+    }
+    
     /**
      * Parse requirements from the configured folder
      */
@@ -100,56 +156,15 @@ public class TddController {
         }
     }
     
-    /**
-     * Generate test cases for the requirements
-     */
-    private List<GeneratedTest> generateTestCases(List<Requirement> requirements) {
-        List<GeneratedTest> tests = new ArrayList<>();
-        for (Requirement requirement : requirements) {
-            tests.add(testGenerator.generateTests(requirement));
-        }
-        return tests;
-    }
-    
-    /**
-     * Generate production code based on requirements and tests
-     */
-    private List<ProductionCode> generateProductionCode(List<Requirement> requirements, List<GeneratedTest> tests) {
-        return codeGenerator.generateCodeForRequirements(requirements, tests);
-    }
-    
-    /**
-     * Refactor the generated production code
-     */
-    private List<ProductionCode> refactorCode(List<ProductionCode> productionCodes, List<GeneratedTest> tests) {
-        return refactorEngine.refactorCodeList(productionCodes, tests);
-    }
-    
-    /**
-     * Run tests against the production code
-     */
-    private List<TestResult> runTests(List<GeneratedTest> tests, List<ProductionCode> productionCodes) {
-        return testRunner.runTestsForRequirements(tests, productionCodes);
-    }
-    
-    /**
-     * Validate the results against requirements
-     */
-    private List<ValidationReport> validateResults(List<Requirement> requirements, List<GeneratedTest> tests,
-            List<ProductionCode> productionCodes, List<TestResult> testResults) {
-        List<ValidationReport> reports = new ArrayList<>();
-        for (int i = 0; i < requirements.size() && i < tests.size() && i < productionCodes.size() && i < testResults.size(); i++) {
-            reports.add(validator.validateResults(requirements.get(i), tests.get(i), productionCodes.get(i), testResults.get(i)));
-        }
-        return reports;
-    }
-    
     /**
      * Shutdown the controller and release resources
      */
     public void shutdown() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
+        pipeline.shutdown();
+        testRunner.shutdown();
+        LlmHttpTransport.closeShared();
+        if (stubServer != null) {
+            stubServer.stop();
         }
     }
     
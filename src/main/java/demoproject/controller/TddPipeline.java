@@ -0,0 +1,212 @@
+package demoproject.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.config.AgentConfig;
+import demoproject.models.GeneratedTest;
+import demoproject.models.ProductionCode;
+import demoproject.models.Requirement;
+import demoproject.models.TestResult;
+import demoproject.models.ValidationReport;
+import demoproject.services.CodeGenerator;
+import demoproject.services.RefactorEngine;
+import demoproject.services.TaskExecutors;
+import demoproject.services.TestGenerator;
+import demoproject.services.TestRunner;
+import demoproject.services.Validator;
+
+/**
+ * Pipelined TDD workflow: each requirement flows through generate test, generate code,
+ * refactor, run and validate on its own, so early requirements run their tests while later
+ * ones are still being generated. Every stage has its own executor: a bounded pool of
+ * platform threads, or in virtual-thread mode a virtual thread per task with concurrency
+ * capped by the resource each stage uses. Requirements that depend on each other (see
+ * {@link RequirementGraph}) are ordered so a prerequisite's code is ready as context for
+ * its dependents.
+ */
+public class TddPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TddPipeline.class);
+
+    private final TestGenerator testGenerator;
+    private final CodeGenerator codeGenerator;
+    private final RefactorEngine refactorEngine;
+    private final TestRunner testRunner;
+    private final Validator validator;
+    private final ExecutorService testStage;
+    private final ExecutorService codeStage;
+    private final ExecutorService refactorStage;
+    private final ExecutorService runStage;
+    private final ExecutorService validateStage;
+
+    public TddPipeline(TestGenerator testGenerator, CodeGenerator codeGenerator, RefactorEngine refactorEngine,
+            TestRunner testRunner, Validator validator, AgentConfig config) {
+        this.testGenerator = testGenerator;
+        this.codeGenerator = codeGenerator;
+        this.refactorEngine = refactorEngine;
+        this.testRunner = testRunner;
+        this.validator = validator;
+        int stageConcurrency = config.getMaxConcurrentTasks();
+        this.testStage = TaskExecutors.newExecutor(config, "tdd-test", stageConcurrency);
+        this.codeStage = TaskExecutors.newExecutor(config, "tdd-code", stageConcurrency);
+        this.refactorStage = TaskExecutors.newExecutor(config, "tdd-refactor", stageConcurrency);
+        this.runStage = TaskExecutors.newExecutor(config, "tdd-run", stageConcurrency);
+        this.validateStage = TaskExecutors.newExecutor(config, "tdd-validate", stageConcurrency);
+    }
+
+    /**
+     * Push every requirement through the pipeline and wait for all of them.
+     * Requirements are started longest dependency chain first; a requirement's code is
+     * generated only after its prerequisites are refactored, while independent requirements
+     * proceed in parallel. Every completed stage is recorded in the journal, and stages the
+     * journal already holds are skipped. Outcomes are returned in requirement order.
+     */
+    public List<RequirementOutcome> run(RequirementGraph graph, RunJournal journal) {
+        List<Requirement> requirements = graph.getRequirements();
+        if (graph.getEdgeCount() > 0) {
+            logger.info("Scheduling {} requirements with {} dependencies, longest chain {}",
+                    requirements.size(), graph.getEdgeCount(), graph.getLongestPathLength());
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        Map<String, CompletableFuture<RequirementOutcome>> refactored = new HashMap<>();
+        Map<String, CompletableFuture<RequirementOutcome>> flows = new HashMap<>();
+        for (Requirement requirement : graph.getSchedulingOrder()) {
+            List<CompletableFuture<RequirementOutcome>> prerequisites = graph.getPrerequisites(requirement.getId()).stream()
+                    .map(refactored::get)
+                    .toList();
+            RequirementOutcome outcome = new RequirementOutcome(requirement);
+            CompletableFuture<RequirementOutcome> codeReady = generateCode(outcome, prerequisites, journal);
+            refactored.put(requirement.getId(), codeReady);
+            flows.put(requirement.getId(), runAndValidate(outcome, codeReady, journal).whenComplete((result, error) -> {
+                if (error == null) {
+                    logger.info("Requirement {} completed ({}/{})", requirement.getId(),
+                            completed.incrementAndGet(), requirements.size());
+                }
+            }));
+        }
+
+        List<RequirementOutcome> outcomes = new ArrayList<>();
+        for (Requirement requirement : requirements) {
+            outcomes.add(flows.get(requirement.getId()).join());
+        }
+        return outcomes;
+    }
+
+    /**
+     * Generate the test right away, then generate and refactor the code once the test and
+     * every prerequisite's refactored code are available
+     */
+    private CompletableFuture<RequirementOutcome> generateCode(RequirementOutcome outcome,
+            List<CompletableFuture<RequirementOutcome>> prerequisites, RunJournal journal) {
+        Requirement requirement = outcome.requirement;
+        CompletableFuture<Void> tested = CompletableFuture
+                .runAsync(() -> outcome.test = journaled(journal, requirement, RunJournal.Stage.TEST, GeneratedTest.class,
+                        () -> testGenerator.generateTests(requirement)), testStage);
+        List<CompletableFuture<?>> inputs = new ArrayList<>(prerequisites);
+        inputs.add(tested);
+        return CompletableFuture.allOf(inputs.toArray(CompletableFuture[]::new))
+                .thenRunAsync(() -> outcome.productionCode = journaled(journal, requirement, RunJournal.Stage.CODE,
+                        ProductionCode.class, () -> codeGenerator.generateCode(requirement, outcome.test,
+                                prerequisites.stream().map(prerequisite -> prerequisite.join().productionCode).toList())), codeStage)
+                .thenRunAsync(() -> outcome.productionCode = journaled(journal, requirement, RunJournal.Stage.REFACTOR,
+                        ProductionCode.class, () -> refactorEngine.refactorCode(outcome.productionCode, outcome.test)),
+                        refactorStage)
+                .thenApply(ignored -> outcome);
+    }
+
+    /**
+     * Run the tests against the refactored code and validate the results. A run stage thread
+     * only prepares the project; tests that go to Maven are awaited without holding it, so
+     * the reactor can batch as many requirements as are ready, not just one per run thread.
+     */
+    private CompletableFuture<RequirementOutcome> runAndValidate(RequirementOutcome outcome,
+            CompletableFuture<RequirementOutcome> codeReady, RunJournal journal) {
+        Requirement requirement = outcome.requirement;
+        return codeReady
+                .thenComposeAsync(ignored -> journaledAsync(journal, requirement, RunJournal.Stage.RUN, TestResult.class,
+                        () -> testRunner.runTestsAsync(outcome.test, outcome.productionCode)), runStage)
+                .thenAccept(testResult -> outcome.testResult = testResult)
+                .thenRunAsync(() -> outcome.validationReport = journaled(journal, requirement, RunJournal.Stage.VALIDATE,
+                        ValidationReport.class, () -> validator.validateResults(requirement, outcome.test,
+                                outcome.productionCode, outcome.testResult)), validateStage)
+                .thenApply(ignored -> outcome);
+    }
+
+    /**
+     * Reuse the journaled output of a stage, or do the work and journal its output once completed
+     */
+    private <T> T journaled(RunJournal journal, Requirement requirement, RunJournal.Stage stage, Class<T> outputType,
+            Supplier<T> work) {
+        T saved = journal.get(requirement.getId(), stage, outputType);
+        if (saved != null) {
+            logger.debug("Reusing journaled {} output of requirement {}", stage, requirement.getId());
+            return saved;
+        }
+        T output = work.get();
+        if (stage.isCompleted(output)) {
+            journal.record(requirement.getId(), stage, output);
+        }
+        return output;
+    }
+
+    /**
+     * Like {@link #journaled}, for work that completes asynchronously
+     */
+    private <T> CompletableFuture<T> journaledAsync(RunJournal journal, Requirement requirement, RunJournal.Stage stage,
+            Class<T> outputType, Supplier<CompletableFuture<T>> work) {
+        T saved = journal.get(requirement.getId(), stage, outputType);
+        if (saved != null) {
+            logger.debug("Reusing journaled {} output of requirement {}", stage, requirement.getId());
+            return CompletableFuture.completedFuture(saved);
+        }
+        return work.get().thenApply(output -> {
+            if (stage.isCompleted(output)) {
+                journal.record(requirement.getId(), stage, output);
+            }
+            return output;
+        });
+    }
+
+    /**
+     * Stop the stage executors
+     */
+    public void shutdown() {
+        for (ExecutorService stage : List.of(testStage, codeStage, refactorStage, runStage, validateStage)) {
+            stage.shutdown();
+        }
+    }
+
+    /**
+     * Artifacts produced for one requirement as it moves through the pipeline.
+     * Each field is written by one stage and read by the later ones, which the
+     * future chain orders.
+     */
+    public static class RequirementOutcome {
+        private final Requirement requirement;
+        private GeneratedTest test;
+        private ProductionCode productionCode;
+        private TestResult testResult;
+        private ValidationReport validationReport;
+
+        RequirementOutcome(Requirement requirement) {
+            this.requirement = requirement;
+        }
+
+        public Requirement getRequirement() { return requirement; }
+        public GeneratedTest getTest() { return test; }
+        public ProductionCode getProductionCode() { return productionCode; }
+        public TestResult getTestResult() { return testResult; }
+        public ValidationReport getValidationReport() { return validationReport; }
+    }
+}
@@ -0,0 +1,121 @@
+package demoproject.models;
+
+/**
+ * Represents the outcome of one executed test method
+ */
+public class TestCaseResult {
+
+    private String className;
+    private String name;
+    private long timeMs;
+    private Outcome outcome;
+    private String failureType;
+    private String failureMessage;
+    private String stackTrace;
+
+    public enum Outcome {
+        PASSED,
+        FAILED,
+        ERROR,
+        SKIPPED
+    }
+
+    public TestCaseResult() {
+        this.outcome = Outcome.PASSED;
+    }
+
+    public TestCaseResult(String className, String name, long timeMs) {
+        this();
+        this.className = className;
+        this.name = name;
+        this.timeMs = timeMs;
+    }
+
+    // Getters and Setters
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(long timeMs) {
+        this.timeMs = timeMs;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getFailureType() {
+        return failureType;
+    }
+
+    public void setFailureType(String failureType) {
+        this.failureType = failureType;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+
+    public String getStackTrace() {
+        return stackTrace;
+    }
+
+    public void setStackTrace(String stackTrace) {
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Check if the test failed an assertion or threw an error
+     */
+    public boolean isFailed() {
+        return outcome == Outcome.FAILED || outcome == Outcome.ERROR;
+    }
+
+    /**
+     * Describe the test as "method in class", followed by the failure if it failed
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder(name).append(" in ").append(className);
+        if (isFailed() && failureType != null) {
+            description.append(": ").append(failureType);
+            if (failureMessage != null && !failureMessage.isEmpty()) {
+                description.append(": ").append(failureMessage);
+            }
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "TestCaseResult{"
+                + "className='" + className + '\''
+                + ", name='" + name + '\''
+                + ", timeMs=" + timeMs
+                + ", outcome=" + outcome
+                + '}';
+    }
+}
@@ -2,6 +2,7 @@ package demoproject.models;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -14,16 +15,19 @@ public class TestResult {
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
     private boolean success;
+    private boolean timedOut;
     private String errorMessage;
     private int totalTests;
     private int passedTests;
     private List<String> failedTests;
+    private List<TestCaseResult> testCases;
     private List<String> compilationErrors;
     private String mavenOutput;
     private String mavenError;
 
     public TestResult() {
         this.failedTests = new ArrayList<>();
+        this.testCases = new ArrayList<>();
         this.compilationErrors = new ArrayList<>();
         this.startedAt = LocalDateTime.now();
     }
@@ -75,6 +79,24 @@ public class TestResult {
         this.success = success;
     }
 
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * Get the outcome of the run; a run cut short by a timeout is TIMED_OUT even if other tests passed
+     */
+    public Status getStatus() {
+        if (timedOut) {
+            return Status.TIMED_OUT;
+        }
+        return success ? Status.PASSED : Status.FAILED;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -107,6 +129,14 @@ public class TestResult {
         this.failedTests = failedTests;
     }
 
+    public List<TestCaseResult> getTestCases() {
+        return testCases;
+    }
+
+    public void setTestCases(List<TestCaseResult> testCases) {
+        this.testCases = testCases;
+    }
+
     public List<String> getCompilationErrors() {
         return compilationErrors;
     }
@@ -138,6 +168,23 @@ public class TestResult {
         this.failedTests.add(testName);
     }
 
+    /**
+     * Add the outcome of one executed test method
+     */
+    public void addTestCase(TestCaseResult testCase) {
+        this.testCases.add(testCase);
+    }
+
+    /**
+     * Get the slowest executed test methods, slowest first
+     */
+    public List<TestCaseResult> getSlowestTestCases(int limit) {
+        return testCases.stream()
+                .sorted(Comparator.comparingLong(TestCaseResult::getTimeMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
     /**
      * Add a compilation error
      */
@@ -201,7 +248,7 @@ public class TestResult {
         summary.append("Test Result Summary:\n");
         summary.append("Test ID: ").append(testId).append("\n");
         summary.append("Requirement ID: ").append(requirementId).append("\n");
-        summary.append("Status: ").append(success ? "PASSED" : "FAILED").append("\n");
+        summary.append("Status: ").append(getStatus()).append("\n");
         summary.append("Started At: ").append(startedAt).append("\n");
         summary.append("Completed At: ").append(completedAt).append("\n");
         summary.append("Duration: ").append(getDurationMs()).append("ms\n");
@@ -221,6 +268,14 @@ public class TestResult {
             }
         }
         
+        if (!testCases.isEmpty()) {
+            summary.append("Slowest Tests:\n");
+            for (TestCaseResult testCase : getSlowestTestCases(3)) {
+                summary.append("  - ").append(testCase.getName()).append(" in ").append(testCase.getClassName())
+                        .append(" (").append(testCase.getTimeMs()).append("ms)\n");
+            }
+        }
+
         if (hasCompilationErrors()) {
             summary.append("Compilation Errors:\n");
             for (String error : compilationErrors) {
@@ -240,11 +295,20 @@ public class TestResult {
         return "TestResult{"
                 + "testId='" + testId + '\''
                 + ", requirementId='" + requirementId + '\''
-                + ", success=" + success
+                + ", status=" + getStatus()
                 + ", totalTests=" + totalTests
                 + ", passedTests=" + passedTests
                 + ", failedTests=" + failedTests.size()
                 + ", compilationErrors=" + compilationErrors.size()
                 + '}';
     }
+
+    /**
+     * Outcome of a test run
+     */
+    public enum Status {
+        PASSED,
+        FAILED,
+        TIMED_OUT
+    }
 } 
\ No newline at end of file
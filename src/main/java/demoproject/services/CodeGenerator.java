@@ -26,17 +26,31 @@ public class CodeGenerator {
     private final AgentConfig config;
     private final LlmService llmService;
     private final CodeTemplateService templateService;
+    private final ResourceLimits resourceLimits;
 
     public CodeGenerator(AgentConfig config) {
+        this(config, new LlmService(config));
+    }
+
+    public CodeGenerator(AgentConfig config, LlmService llmService) {
         this.config = config;
-        this.llmService = new LlmService(config);
+        this.llmService = llmService;
         this.templateService = new CodeTemplateService(config);
+        this.resourceLimits = ResourceLimits.shared(config);
     }
 
     /**
      * Generate production code for a requirement based on its test cases
      */
     public ProductionCode generateCode(Requirement requirement, GeneratedTest test) {
+        return generateCode(requirement, test, List.of());
+    }
+
+    /**
+     * Generate production code for a requirement, giving the LLM the code already generated
+     * for the requirements it depends on
+     */
+    public ProductionCode generateCode(Requirement requirement, GeneratedTest test, List<ProductionCode> prerequisites) {
         logger.debug("Generating production code for requirement: {}", requirement.getId());
 
         try {
@@ -44,7 +58,7 @@ public class CodeGenerator {
             String testAnalysis = analyzeTestCases(test);
 
             // Step 2: Generate production code using LLM
-            String generatedCode = generateProductionCode(requirement, testAnalysis);
+            String generatedCode = generateProductionCode(requirement, testAnalysis, prerequisites);
 
             // Step 3: Create the production code object
             ProductionCode productionCode = createProductionCode(requirement, generatedCode);
@@ -142,12 +156,13 @@ public class CodeGenerator {
     /**
      * Generate production code using LLM service
      */
-    private String generateProductionCode(Requirement requirement, String testAnalysis) {
-        String prompt = buildCodeGenerationPrompt(requirement, testAnalysis);
+    private String generateProductionCode(Requirement requirement, String testAnalysis, List<ProductionCode> prerequisites) {
+        String prompt = buildCodeGenerationPrompt(requirement, testAnalysis, prerequisites);
 
         try {
             logger.info("Calling LLM service for code generation...");
-            String result = llmService.generateCode(prompt);
+            String result = llmService.generateCode(prompt,
+                    LlmCallContext.of(requirement.getId(), LlmCallContext.Stage.CODE_GENERATION));
             logger.info("LLM service returned code of length: {}", result.length());
             return result;
         } catch (Exception e) {
@@ -159,7 +174,7 @@ public class CodeGenerator {
     /**
      * Build the prompt for code generation
      */
-    private String buildCodeGenerationPrompt(Requirement requirement, String testAnalysis) {
+    private String buildCodeGenerationPrompt(Requirement requirement, String testAnalysis, List<ProductionCode> prerequisites) {
         String className = requirement.getId().replaceAll("[^a-zA-Z0-9]", "") + "Service";
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are a Java developer. Generate a COMPLETE, WORKING Java class implementation.");
@@ -169,7 +184,21 @@ public class CodeGenerator {
         for (String ac : requirement.getAcceptanceCriteria()) {
             prompt.append("\n- ").append(ac);
         }
-        prompt.append("\n\nTEST ANALYSIS: ").append(testAnalysis);
+        String fixedPart = requirement.getTitle() + requirement.getDescription() + String.join("\n", requirement.getAcceptanceCriteria());
+        List<ProductionCode> context = prerequisites.stream()
+                .filter(code -> code.getCode() != null && code.getStatus() != ProductionCode.CodeStatus.FAILED)
+                .toList();
+        int budgetedInputs = 1 + context.size();
+        prompt.append("\n\nTEST ANALYSIS: ").append(llmService.getPromptBudget().fit(testAnalysis, fixedPart, budgetedInputs));
+        if (!context.isEmpty()) {
+            prompt.append("\n\nPREREQUISITE CODE (already generated for the requirements this one depends on; ")
+                    .append("keep names, data shapes and behaviour consistent with it, but do not reference these classes, ")
+                    .append("the implementation must stay self-contained):");
+            for (ProductionCode code : context) {
+                prompt.append("\n\n// ").append(code.getClassName()).append(" (").append(code.getRequirementId()).append(")\n")
+                        .append(llmService.getPromptBudget().fit(code.getCode(), fixedPart, budgetedInputs));
+            }
+        }
         prompt.append("\n\nMANDATORY REQUIREMENTS:");
         prompt.append("\n- Class name: ").append(className);
         prompt.append("\n- Package: generated.code");
@@ -218,7 +247,9 @@ public class CodeGenerator {
         Files.createDirectories(codePath);
         
         Path filePath = codePath.resolve(productionCode.getFileName());
-        Files.write(filePath, productionCode.getCode().getBytes());
+        try (ResourceLimits.Permit permit = resourceLimits.acquireForIo(ResourceLimits.Resource.DISK)) {
+            Files.write(filePath, productionCode.getCode().getBytes());
+        }
         
         logger.debug("Written production code file: {}", filePath);
     }
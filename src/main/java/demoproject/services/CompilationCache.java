@@ -0,0 +1,356 @@
+package demoproject.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.models.TestResult;
+
+/**
+ * Content-addressed cache of in-process compilations.
+ * Entries are keyed by a SHA-256 hash of the compiler's classpath fingerprint and the sources,
+ * and hold the compiled class files or compile errors, plus the outcome of the last test run
+ * of those classes. Like {@link LlmResponseCache} it has an in-memory LRU tier and a disk tier,
+ * and only the memory tier is accessed under a lock, so lookups never queue behind file I/O.
+ */
+public class CompilationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompilationCache.class);
+
+    private static final String ENTRY_SUFFIX = ".bin";
+    /** Bump when the entry file layout changes */
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, Entry> memory;
+    private final ReentrantLock memoryLock = new ReentrantLock();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong runHits = new AtomicLong();
+
+    public CompilationCache(Path directory, int maxMemoryEntries, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+
+        try {
+            Files.createDirectories(directory);
+            diskBytes.set(listEntries().stream().mapToLong(CompilationCache::sizeOf).sum());
+            logger.debug("Opened compilation cache at {} ({} bytes on disk)", directory, diskBytes.get());
+        } catch (IOException e) {
+            logger.warn("Could not initialise compilation cache directory: {}", directory, e);
+        }
+    }
+
+    /**
+     * Build the cache key for a compilation; sources are hashed in file name order
+     */
+    public static String key(String classpathFingerprint, Map<String, String> sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(classpathFingerprint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            for (Map.Entry<String, String> source : new TreeMap<>(sources).entrySet()) {
+                digest.update(source.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(source.getValue().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a compilation, checking memory first and then disk
+     */
+    public Entry get(String key) {
+        Entry entry = getFromMemory(key);
+        if (entry == null) {
+            entry = readEntry(key);
+            if (entry != null) {
+                putInMemory(key, entry);
+            }
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Store a compilation in both tiers
+     */
+    public void put(String key, Entry entry) {
+        putInMemory(key, entry);
+
+        Path file = entryPath(key);
+        try {
+            long previous = sizeOf(file);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                entry.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(Files.size(file) - previous) > maxDiskBytes) {
+                evictDiskEntries();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to persist compilation to cache: {}", file, e);
+        }
+    }
+
+    private Entry getFromMemory(String key) {
+        memoryLock.lock();
+        try {
+            return memory.get(key);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        memoryLock.lock();
+        try {
+            memory.put(key, entry);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    /**
+     * Record the outcome of running the entry's tests, to be reused while the run settings are unchanged
+     */
+    public void putRun(String key, Entry entry, String runSettings, TestResult result) {
+        put(key, entry.withRun(runSettings, result));
+    }
+
+    /**
+     * Count a test run answered from the cache
+     */
+    public void recordRunHit() {
+        runHits.incrementAndGet();
+    }
+
+    private Entry readEntry(String key) {
+        Path file = entryPath(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = Entry.readFrom(in);
+            // Touch the entry so disk eviction stays least-recently-used
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return entry;
+        } catch (NoSuchFileException e) {
+            // Not cached, or evicted meanwhile
+            return null;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable compilation cache entry: {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Remove the least recently used disk entries until the tier fits its size bound. One
+     * writer evicts at a time; the others skip it, as the running eviction frees space for them.
+     * The tier's size is recounted from the listing, correcting any drift from concurrent writes.
+     */
+    private void evictDiskEntries() throws IOException {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Path> entries = listEntries();
+            entries.sort(Comparator.comparing(CompilationCache::lastModified));
+            long size = entries.stream().mapToLong(CompilationCache::sizeOf).sum();
+            for (Path entry : entries) {
+                if (size <= maxDiskBytes) {
+                    break;
+                }
+                long entrySize = sizeOf(entry);
+                if (Files.deleteIfExists(entry)) {
+                    size -= entrySize;
+                }
+            }
+            diskBytes.set(size);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .toList());
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Get a one-line summary of cache statistics
+     */
+    public String getSummary() {
+        return String.format("Compilation cache: %d hits, %d misses, %d test runs reused",
+                hits.get(), misses.get(), runHits.get());
+    }
+
+    /**
+     * A cached compilation and, if its tests have been run, the outcome of the last run
+     */
+    public static class Entry {
+        private final InProcessCompiler.CompilationResult compilation;
+        private final String runSettings;
+        private final int totalTests;
+        private final int passedTests;
+        private final List<String> failedTests;
+
+        public Entry(InProcessCompiler.CompilationResult compilation) {
+            this(compilation, null, 0, 0, List.of());
+        }
+
+        private Entry(InProcessCompiler.CompilationResult compilation, String runSettings, int totalTests,
+                int passedTests, List<String> failedTests) {
+            this.compilation = compilation;
+            this.runSettings = runSettings;
+            this.totalTests = totalTests;
+            this.passedTests = passedTests;
+            this.failedTests = failedTests;
+        }
+
+        public InProcessCompiler.CompilationResult getCompilation() { return compilation; }
+
+        /**
+         * Check if the entry holds a test run made with the given settings
+         */
+        public boolean hasRun(String settings) {
+            return runSettings != null && runSettings.equals(settings);
+        }
+
+        /**
+         * Copy the cached test run into a result
+         */
+        public void applyRun(TestResult result) {
+            result.setTotalTests(totalTests);
+            result.setPassedTests(passedTests);
+            failedTests.forEach(result::addFailedTest);
+        }
+
+        Entry withRun(String settings, TestResult result) {
+            return new Entry(compilation, settings, result.getTotalTests(), result.getPassedTests(),
+                    List.copyOf(result.getFailedTests()));
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(FORMAT_VERSION);
+            out.writeBoolean(compilation.isSuccess());
+            writeStrings(out, compilation.getErrors());
+            out.writeInt(compilation.getClasses().size());
+            for (Map.Entry<String, byte[]> entry : compilation.getClasses().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            out.writeBoolean(runSettings != null);
+            if (runSettings != null) {
+                out.writeUTF(runSettings);
+                out.writeInt(totalTests);
+                out.writeInt(passedTests);
+                writeStrings(out, failedTests);
+            }
+        }
+
+        static Entry readFrom(DataInputStream in) throws IOException {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported compilation cache entry format");
+            }
+            boolean success = in.readBoolean();
+            List<String> errors = readStrings(in);
+            int classCount = in.readInt();
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            for (int i = 0; i < classCount; i++) {
+                String name = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.put(name, bytes);
+            }
+            InProcessCompiler.CompilationResult compilation = new InProcessCompiler.CompilationResult(success, errors, classes);
+            if (!in.readBoolean()) {
+                return new Entry(compilation);
+            }
+            return new Entry(compilation, in.readUTF(), in.readInt(), in.readInt(), readStrings(in));
+        }
+
+        private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private static List<String> readStrings(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return values;
+        }
+    }
+}
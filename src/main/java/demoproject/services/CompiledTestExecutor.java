@@ -0,0 +1,24 @@
+package demoproject.services;
+
+import java.util.Map;
+
+import demoproject.models.TestResult;
+
+/**
+ * Runs test classes that were compiled in memory and records the outcome in a test result
+ */
+public interface CompiledTestExecutor {
+
+    /**
+     * Run every test in the given classes
+     *
+     * @param classes class files by binary class name, as produced by {@link InProcessCompiler}
+     */
+    void execute(Map<String, byte[]> classes, TestResult result) throws Exception;
+
+    /**
+     * Release the executor's resources
+     */
+    default void close() {
+    }
+}
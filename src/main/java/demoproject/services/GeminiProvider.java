@@ -0,0 +1,303 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Google Gemini generateContent / streamGenerateContent wire format
+ */
+public class GeminiProvider implements LlmProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeminiProvider.class);
+    private static final String GENERATE_CONTENT_METHOD = ":generateContent";
+    private static final String STREAM_GENERATE_CONTENT_METHOD = ":streamGenerateContent";
+
+    private final AgentConfig config;
+    private final ObjectMapper objectMapper;
+    private final String requestParameters;
+    private final JsonRequestTemplate requestTemplate;
+
+    public GeminiProvider(AgentConfig config) {
+        this.config = config;
+        this.objectMapper = new ObjectMapper();
+        ObjectNode generationConfig = buildGenerationConfig();
+        ArrayNode safetySettings = buildSafetySettings();
+        this.requestParameters = generationConfig.toString() + safetySettings.toString();
+        this.requestTemplate = buildRequestTemplate(generationConfig, safetySettings);
+    }
+
+    @Override
+    public String getName() {
+        return "Google Gemini";
+    }
+
+    /**
+     * Build the full request URL with API key
+     */
+    @Override
+    public String buildRequestUrl(boolean streaming) throws IOException {
+        String apiUrl = config.getLlmApiUrl();
+        if (!streaming) {
+            return apiUrl + "?key=" + config.getLlmApiKey();
+        }
+        if (!apiUrl.contains(GENERATE_CONTENT_METHOD)) {
+            throw new IOException("Cannot derive streaming endpoint from API URL: " + apiUrl);
+        }
+        return apiUrl.replace(GENERATE_CONTENT_METHOD, STREAM_GENERATE_CONTENT_METHOD)
+                + "?alt=sse&key=" + config.getLlmApiKey();
+    }
+
+    @Override
+    public Map<String, String> getRequestHeaders() {
+        return Collections.emptyMap(); // the key travels in the URL
+    }
+
+    /**
+     * Write the request body according to Google Gemini API format; the plain and
+     * streaming endpoints take the same body
+     */
+    @Override
+    public void writeRequestBody(String prompt, boolean streaming, OutputStream out) throws IOException {
+        requestTemplate.writeTo(prompt, out);
+    }
+
+    @Override
+    public String getRequestParameters() {
+        return requestParameters;
+    }
+
+    /**
+     * Serialize the request envelope once, leaving a slot for the prompt text
+     */
+    private JsonRequestTemplate buildRequestTemplate(ObjectNode generationConfig, ArrayNode safetySettings) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.putArray("contents").addObject()
+                .putArray("parts").addObject()
+                .put("text", JsonRequestTemplate.slot());
+        requestBody.set("generationConfig", generationConfig);
+        requestBody.set("safetySettings", safetySettings);
+        return JsonRequestTemplate.of(requestBody);
+    }
+
+    /**
+     * Build the generation config sent with every request
+     */
+    private ObjectNode buildGenerationConfig() {
+        ObjectNode generationConfig = objectMapper.createObjectNode();
+        generationConfig.put("temperature", 0.2);
+        generationConfig.put("topK", 40);
+        generationConfig.put("topP", 0.8);
+        generationConfig.put("maxOutputTokens", config.getLlmMaxOutputTokens());
+        generationConfig.put("candidateCount", 1);
+        return generationConfig;
+    }
+
+    /**
+     * Build the safety settings sent with every request
+     */
+    private ArrayNode buildSafetySettings() {
+        ArrayNode safetySettings = objectMapper.createArrayNode();
+        String[] categories = {"HARM_CATEGORY_HARASSMENT", "HARM_CATEGORY_HATE_SPEECH",
+                             "HARM_CATEGORY_SEXUALLY_EXPLICIT", "HARM_CATEGORY_DANGEROUS_CONTENT"};
+        for (String category : categories) {
+            ObjectNode safetySetting = objectMapper.createObjectNode();
+            safetySetting.put("category", category);
+            safetySetting.put("threshold", "BLOCK_MEDIUM_AND_ABOVE");
+            safetySettings.add(safetySetting);
+        }
+        return safetySettings;
+    }
+
+    /**
+     * Extract candidates[0].content.parts[0].text and the usage from a Google Gemini API
+     * response with the streaming parser, skipping everything else without building a tree
+     */
+    @Override
+    public LlmResponse parseResponse(String responseBody) throws IOException {
+        String generatedText = null;
+        int promptTokens = 0;
+        int completionTokens = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw unexpectedResponse(responseBody);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "error":
+                        JsonNode error = objectMapper.readTree(parser);
+                        String errorMessage = error.path("message").asText("Unknown error");
+                        logger.error("Google Gemini API returned error: {}", errorMessage);
+                        throw new IOException("Google Gemini API error: " + errorMessage);
+                    case "usageMetadata":
+                        JsonNode usage = objectMapper.readTree(parser);
+                        promptTokens = usage.path("promptTokenCount").asInt();
+                        completionTokens = usage.path("candidatesTokenCount").asInt();
+                        break;
+                    case "candidates":
+                        generatedText = readFirstCandidateText(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+
+        if (generatedText == null) {
+            throw unexpectedResponse(responseBody);
+        }
+        logger.debug("Generated text length: {}", generatedText.length());
+        return new LlmResponse(generatedText, promptTokens, completionTokens);
+    }
+
+    /**
+     * Read the text of the first candidate and skip the others. The parser is on the
+     * candidates array and is left on its end.
+     */
+    private static String readFirstCandidateText(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String text = null;
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            String directText = null;
+            String contentText = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String contentField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("parts".equals(contentField)) {
+                            text = readFirstPartText(parser);
+                        } else if ("text".equals(contentField)) {
+                            contentText = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("text".equals(field)) {
+                    directText = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            // Same fallbacks as before: a bare candidate text, then a content-level text
+            if (text == null) {
+                text = isPresent(directText) ? directText : isPresent(contentText) ? contentText : null;
+            }
+            token = parser.nextToken();
+        }
+        while (token != null && token != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return text;
+    }
+
+    /**
+     * Read parts[0].text and skip the remaining parts. The parser is on the parts array
+     * and is left on its end.
+     */
+    private static String readFirstPartText(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String text = null;
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("text".equals(field)) {
+                    text = parser.getValueAsString("");
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            text = text != null ? text : "";
+            token = parser.nextToken();
+        }
+        while (token != null && token != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return text;
+    }
+
+    private static boolean isPresent(String text) {
+        return text != null && !text.isEmpty();
+    }
+
+    private IOException unexpectedResponse(String responseBody) {
+        logger.error("Unexpected response format from Google Gemini API: {}", responseBody);
+        return new IOException("Unexpected response format from Google Gemini API - no candidates found");
+    }
+
+    /**
+     * Pull the candidates[].content.parts[].text values and the usage out of one streamed
+     * chunk with the streaming parser, without building a tree
+     */
+    @Override
+    public LlmResponse parseStreamChunk(String chunk) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int promptTokens = 0;
+        int completionTokens = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(chunk)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) {
+                    continue;
+                }
+                String field = parser.getCurrentName();
+                if (parser.getParsingContext().getParent().inRoot()) {
+                    if ("error".equals(field)) {
+                        parser.nextToken();
+                        JsonNode error = objectMapper.readTree(parser);
+                        String message = error.path("message").asText("Unknown error");
+                        throw new IOException("Google Gemini API error: " + message);
+                    }
+                    if ("usageMetadata".equals(field)) {
+                        parser.nextToken();
+                        JsonNode usage = objectMapper.readTree(parser);
+                        promptTokens = usage.path("promptTokenCount").asInt();
+                        completionTokens = usage.path("candidatesTokenCount").asInt();
+                        continue;
+                    }
+                }
+                if ("text".equals(field) && isInsideParts(parser)) {
+                    parser.nextToken();
+                    text.append(parser.getValueAsString(""));
+                }
+            }
+        }
+        return new LlmResponse(text.toString(), promptTokens, completionTokens);
+    }
+
+    private static boolean isInsideParts(JsonParser parser) {
+        JsonStreamContext partObject = parser.getParsingContext();
+        JsonStreamContext partsArray = partObject.getParent();
+        return partsArray != null && partsArray.inArray()
+                && partsArray.getParent() != null && "parts".equals(partsArray.getParent().getCurrentName());
+    }
+}
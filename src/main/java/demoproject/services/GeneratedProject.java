@@ -0,0 +1,66 @@
+package demoproject.services;
+
+/**
+ * Build definition of the Maven project written for each requirement. The in-process compiler
+ * stands in for this build, so it takes the Java release and test dependency from here too.
+ */
+public final class GeneratedProject {
+
+    /** Java release the generated code is compiled for */
+    static final int JAVA_RELEASE = 17;
+
+    /** The generated tests' only declared dependency, as groupId:artifactId:version */
+    static final String TEST_DEPENDENCY = "org.junit.jupiter:junit-jupiter:5.9.2";
+
+    private static final String POM = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <project xmlns="http://maven.apache.org/POM/4.0.0" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+              xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd">
+              <modelVersion>4.0.0</modelVersion>
+
+              <groupId>generated</groupId>
+              <artifactId>%s</artifactId>
+              <version>1.0</version>
+
+              <properties>
+                <maven.compiler.release>%d</maven.compiler.release>
+                <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>
+              </properties>
+
+              <dependencies>
+                <dependency>
+                  <groupId>%s</groupId>
+                  <artifactId>%s</artifactId>
+                  <version>%s</version>
+                  <scope>test</scope>
+                </dependency>
+              </dependencies>
+
+              <build>
+                <plugins>
+                  <plugin>
+                    <groupId>org.apache.maven.plugins</groupId>
+                    <artifactId>maven-compiler-plugin</artifactId>
+                    <version>3.12.1</version>
+                  </plugin>
+                  <plugin>
+                    <groupId>org.apache.maven.plugins</groupId>
+                    <artifactId>maven-surefire-plugin</artifactId>
+                    <version>3.2.5</version>
+                  </plugin>
+                </plugins>
+              </build>
+            </project>
+            """;
+
+    private GeneratedProject() {
+    }
+
+    /**
+     * Get the build file of a requirement's project
+     */
+    static String pom(String artifactId) {
+        String[] dependency = TEST_DEPENDENCY.split(":");
+        return POM.formatted(artifactId, JAVA_RELEASE, dependency[0], dependency[1], dependency[2]);
+    }
+}
@@ -0,0 +1,357 @@
+package demoproject.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Compiles generated production and test code from strings with the JDK's compiler, inside the
+ * agent's JVM. Sources are read from memory and class files are kept in memory, so a requirement
+ * whose code does not compile is rejected without starting Maven.
+ */
+public class InProcessCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessCompiler.class);
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+
+    private final JavaCompiler compiler;
+    private final List<String> options;
+    private final String fingerprint;
+    private final Queue<StandardJavaFileManager> idleFileManagers = new ConcurrentLinkedQueue<>();
+
+    private InProcessCompiler(JavaCompiler compiler, List<Path> classpath) {
+        this.compiler = compiler;
+        this.options = List.of(
+                "--release", String.valueOf(GeneratedProject.JAVA_RELEASE),
+                "-classpath", String.join(File.pathSeparator, classpath.stream().map(Path::toString).toList()),
+                "-encoding", "UTF-8",
+                "-proc:none",
+                "-g",
+                "-nowarn");
+        this.fingerprint = fingerprint(options, classpath);
+    }
+
+    /**
+     * Describe everything besides the sources that affects the compiled classes: the JDK,
+     * the options (which list the classpath) and the size and modification time of every jar.
+     * Directories are left out, as their modification time changes whenever files are added.
+     */
+    private static String fingerprint(List<String> options, List<Path> classpath) {
+        StringBuilder fingerprint = new StringBuilder(System.getProperty("java.vm.version"));
+        options.forEach(option -> fingerprint.append('\n').append(option));
+        for (Path entry : classpath) {
+            if (Files.isRegularFile(entry)) {
+                try {
+                    fingerprint.append('\n').append(Files.size(entry)).append(' ').append(Files.getLastModifiedTime(entry).toMillis());
+                } catch (IOException e) {
+                    fingerprint.append("\nunreadable ").append(entry);
+                }
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Get a description of the JDK, options and classpath, for keying cached compilations
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Create a compiler with the configured classpath, or return null if this JVM has no
+     * system Java compiler (for example when running on a JRE) or the generated project's
+     * test dependencies are not in the local Maven repository yet
+     */
+    public static InProcessCompiler create(AgentConfig config) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            logger.warn("No system Java compiler available, generated code is compiled by Maven");
+            return null;
+        }
+        List<Path> classpath = resolveClasspath(config);
+        if (classpath == null) {
+            logger.warn("Test dependency {} not found in the local Maven repository, generated code is compiled by Maven",
+                    GeneratedProject.TEST_DEPENDENCY);
+            return null;
+        }
+        logger.debug("In-process compile classpath: {}", classpath);
+        return new InProcessCompiler(compiler, classpath);
+    }
+
+    /**
+     * Resolve the classpath shared by every compilation: the configured entries if any,
+     * otherwise the generated project's test dependency and its compile-scope dependencies
+     * from the local Maven repository, as Maven would put them on the test classpath
+     *
+     * @return the classpath, or null if the test dependency cannot be resolved
+     */
+    static List<Path> resolveClasspath(AgentConfig config) {
+        String configured = config.getCompileClasspath();
+        if (configured == null || configured.isBlank()) {
+            return resolveDependencies(localMavenRepository(), GeneratedProject.TEST_DEPENDENCY);
+        }
+        Set<Path> classpath = new LinkedHashSet<>();
+        for (String entry : configured.split(File.pathSeparator)) {
+            if (!entry.isBlank()) {
+                classpath.add(Paths.get(entry));
+            }
+        }
+        return new ArrayList<>(classpath);
+    }
+
+    /**
+     * Collect the jars of an artifact and of every compile-scope dependency its POM declares,
+     * transitively. Optional dependencies and those without an explicit version are skipped.
+     *
+     * @param coordinates groupId:artifactId:version
+     * @return the jars in breadth-first order, or null if the artifact's own POM is missing
+     */
+    static List<Path> resolveDependencies(Path repository, String coordinates) {
+        Set<String> visited = new LinkedHashSet<>();
+        List<Path> jars = new ArrayList<>();
+        Deque<String> toVisit = new ArrayDeque<>(List.of(coordinates));
+        while (!toVisit.isEmpty()) {
+            String next = toVisit.poll();
+            if (!visited.add(next.substring(0, next.lastIndexOf(':')))) {
+                continue; // the nearest version wins, as in Maven
+            }
+            Path artifact = artifactPath(repository, next);
+            Path pom = artifact.resolveSibling(artifact.getFileName() + ".pom");
+            if (!Files.isRegularFile(pom)) {
+                if (next.equals(coordinates)) {
+                    return null;
+                }
+                logger.warn("Dependency not found in local Maven repository: {}", pom);
+                continue;
+            }
+            Path jar = artifact.resolveSibling(artifact.getFileName() + ".jar");
+            if (Files.isRegularFile(jar)) {
+                jars.add(jar);
+            }
+            toVisit.addAll(compileDependencies(pom));
+        }
+        return jars;
+    }
+
+    /**
+     * Path of an artifact in the repository, without the file extension
+     */
+    private static Path artifactPath(Path repository, String coordinates) {
+        String[] parts = coordinates.split(":");
+        return repository.resolve(parts[0].replace('.', '/')).resolve(parts[1]).resolve(parts[2])
+                .resolve(parts[1] + "-" + parts[2]);
+    }
+
+    /**
+     * Read the compile-scope dependencies a POM declares directly, ignoring dependency management
+     */
+    private static List<String> compileDependencies(Path pom) {
+        List<String> dependencies = new ArrayList<>();
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Element project = factory.newDocumentBuilder().parse(pom.toFile()).getDocumentElement();
+            for (Element section : childElements(project, "dependencies")) {
+                for (Element dependency : childElements(section, "dependency")) {
+                    String scope = childText(dependency, "scope", "compile");
+                    String version = childText(dependency, "version", null);
+                    if (scope.equals("compile") && version != null && !version.contains("${")
+                            && !childText(dependency, "optional", "false").equals("true")) {
+                        dependencies.add(childText(dependency, "groupId", "") + ":"
+                                + childText(dependency, "artifactId", "") + ":" + version);
+                    }
+                }
+            }
+        } catch (IOException | ParserConfigurationException | SAXException e) {
+            logger.warn("Failed to read dependencies of {}", pom, e);
+        }
+        return dependencies;
+    }
+
+    private static List<Element> childElements(Element parent, String name) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element && element.getTagName().equals(name)) {
+                children.add(element);
+            }
+        }
+        return children;
+    }
+
+    private static String childText(Element parent, String name, String defaultValue) {
+        List<Element> children = childElements(parent, name);
+        return children.isEmpty() ? defaultValue : children.get(0).getTextContent().trim();
+    }
+
+    private static Path localMavenRepository() {
+        String repository = System.getProperty("maven.repo.local");
+        return repository != null ? Paths.get(repository) : Paths.get(System.getProperty("user.home"), ".m2", "repository");
+    }
+
+    /**
+     * Compile a set of sources together
+     *
+     * @param sources source code by file name, e.g. "CalculatorService.java"
+     */
+    public CompilationResult compile(Map<String, String> sources) {
+        List<JavaFileObject> compilationUnits = new ArrayList<>();
+        sources.forEach((fileName, code) -> compilationUnits.add(new SourceFile(fileName, code)));
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = idleFileManagers.poll();
+        if (standardFileManager == null) {
+            standardFileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+        }
+        try {
+            ClassFileManager fileManager = new ClassFileManager(standardFileManager);
+            boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits).call();
+
+            List<String> errors = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    errors.add(format(diagnostic));
+                }
+            }
+            return new CompilationResult(success, errors, fileManager.classes);
+        } finally {
+            // The file manager caches opened classpath jars, so it is kept for the next compilation
+            idleFileManagers.add(standardFileManager);
+        }
+    }
+
+    private static String format(Diagnostic<? extends JavaFileObject> diagnostic) {
+        String source = diagnostic.getSource() != null ? diagnostic.getSource().toUri().getPath().substring(1) : "<unknown>";
+        return source + ":" + diagnostic.getLineNumber() + ":" + diagnostic.getColumnNumber() + ": "
+                + diagnostic.getMessage(Locale.ROOT);
+    }
+
+    /**
+     * Release the cached file managers
+     */
+    public void close() {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = idleFileManagers.poll()) != null) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close file manager", e);
+            }
+        }
+    }
+
+    /**
+     * Outcome of one compilation: errors as "File.java:line:column: message", and the
+     * compiled class files by binary class name
+     */
+    public static class CompilationResult {
+        private final boolean success;
+        private final List<String> errors;
+        private final Map<String, byte[]> classes;
+
+        CompilationResult(boolean success, List<String> errors, Map<String, byte[]> classes) {
+            this.success = success;
+            this.errors = errors;
+            this.classes = classes;
+        }
+
+        public boolean isSuccess() { return success; }
+        public List<String> getErrors() { return errors; }
+        public Map<String, byte[]> getClasses() { return classes; }
+    }
+
+    /**
+     * Source held in memory, placed under its package so the compiler's file name checks pass
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String code;
+
+        SourceFile(String fileName, String code) {
+            super(URI.create("string:///" + packagePath(code) + fileName), Kind.SOURCE);
+            this.code = code;
+        }
+
+        private static String packagePath(String code) {
+            Matcher matcher = PACKAGE_PATTERN.matcher(code);
+            return matcher.find() ? matcher.group(1).replace('.', '/') + "/" : "";
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    /**
+     * Collects class files in memory instead of writing them to an output directory
+     */
+    private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+        ClassFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                JavaFileObject.Kind kind, FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            classes.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            // The shared standard file manager outlives this compilation
+        }
+    }
+}
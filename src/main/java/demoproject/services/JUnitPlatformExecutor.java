@@ -0,0 +1,166 @@
+package demoproject.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.discovery.ClassSelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.models.TestResult;
+
+/**
+ * Runs compiled test classes through the JUnit Platform Launcher inside the agent's JVM.
+ * Each run loads the classes of one requirement in its own child class loader, so
+ * requirements that generate classes with the same names do not see each other's code.
+ * A run cannot be stopped from outside, so there is no limit on a whole run; the worker
+ * backend enforces one by killing its JVM.
+ */
+public class JUnitPlatformExecutor implements CompiledTestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JUnitPlatformExecutor.class);
+
+    private final LauncherConfig launcherConfig;
+    private final long testTimeoutMs;
+
+    /**
+     * @param testTimeoutMs time each test method may take, or 0 for no limit
+     */
+    public JUnitPlatformExecutor(long testTimeoutMs) {
+        this.testTimeoutMs = testTimeoutMs;
+        // Only the test engines (Jupiter) are discovered; listeners and filters on the classpath are not
+        this.launcherConfig = LauncherConfig.builder()
+                .enableTestExecutionListenerAutoRegistration(false)
+                .enableLauncherDiscoveryListenerAutoRegistration(false)
+                .enablePostDiscoveryFilterAutoRegistration(false)
+                .enableLauncherSessionListenerAutoRegistration(false)
+                .build();
+    }
+
+    /**
+     * Run every test in the given classes and record the counts and failures in the result
+     */
+    @Override
+    public void execute(Map<String, byte[]> classes, TestResult result) throws ClassNotFoundException {
+        ClassLoader loader = new InMemoryClassLoader(classes, JUnitPlatformExecutor.class.getClassLoader());
+        List<ClassSelector> selectors = new ArrayList<>();
+        for (String className : classes.keySet()) {
+            if (!className.contains("$")) {
+                selectors.add(DiscoverySelectors.selectClass(loader.loadClass(className)));
+            }
+        }
+        LauncherDiscoveryRequestBuilder requestBuilder = LauncherDiscoveryRequestBuilder.request().selectors(selectors);
+        if (testTimeoutMs > 0) {
+            // Timed-out tests are abandoned on their own thread, so even a busy loop fails the test
+            requestBuilder.configurationParameter("junit.jupiter.execution.timeout.default", testTimeoutMs + " ms")
+                    .configurationParameter("junit.jupiter.execution.timeout.thread.mode.default", "SEPARATE_THREAD");
+        }
+        LauncherDiscoveryRequest request = requestBuilder.build();
+
+        ResultListener listener = new ResultListener(result);
+        launch(request, listener, loader);
+        result.setTotalTests(listener.finished.get());
+        result.setPassedTests(listener.passed.get());
+        logger.debug("Ran {} tests for requirement {}: {} passed, {} failed", listener.finished.get(),
+                result.getRequirementId(), listener.passed.get(), result.getFailedTests().size());
+    }
+
+    private void launch(LauncherDiscoveryRequest request, ResultListener listener, ClassLoader loader) {
+        Thread thread = Thread.currentThread();
+        ClassLoader previousLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            // A launcher per run, so concurrent runs share no execution state
+            LauncherFactory.create(launcherConfig).execute(request, listener);
+        } finally {
+            thread.setContextClassLoader(previousLoader);
+        }
+    }
+
+    /**
+     * Counts every finished test; failed tests, and containers that failed before their tests
+     * could run, are added to the result's failures. A test that exceeded its timeout marks
+     * the result as timed out.
+     */
+    private static class ResultListener implements TestExecutionListener {
+        private final TestResult result;
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicInteger passed = new AtomicInteger();
+
+        ResultListener(TestResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult executionResult) {
+            boolean successful = executionResult.getStatus() == TestExecutionResult.Status.SUCCESSFUL;
+            if (testIdentifier.isTest()) {
+                finished.incrementAndGet();
+                if (successful) {
+                    passed.incrementAndGet();
+                }
+            }
+            if (!successful) {
+                String message = executionResult.getThrowable()
+                        .map(throwable -> ": " + throwable)
+                        .orElse("");
+                boolean timedOut = executionResult.getThrowable()
+                        .filter(throwable -> throwable instanceof TimeoutException)
+                        .isPresent();
+                synchronized (result) {
+                    result.addFailedTest(describe(testIdentifier) + message);
+                    if (timedOut) {
+                        result.setTimedOut(true);
+                    }
+                }
+            }
+        }
+
+        private static String describe(TestIdentifier testIdentifier) {
+            return testIdentifier.getSource()
+                    .map(source -> source instanceof MethodSource method
+                            ? method.getMethodName() + " in " + method.getClassName()
+                            : testIdentifier.getDisplayName())
+                    .orElse(testIdentifier.getDisplayName());
+        }
+    }
+
+    /**
+     * Defines classes from in-memory class files, before asking its parent
+     */
+    private static class InMemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        InMemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    byte[] bytes = classes.get(name);
+                    loaded = bytes != null ? defineClass(name, bytes, 0, bytes.length) : super.loadClass(name, false);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+    }
+}
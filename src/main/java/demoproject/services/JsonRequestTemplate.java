@@ -0,0 +1,63 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Request body serialized once with a single string slot. Each request writes the
+ * pre-encoded bytes around the slot and streams only its own value into it.
+ */
+public class JsonRequestTemplate {
+
+    private static final String SLOT = "__LLM_REQUEST_SLOT__";
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    private JsonRequestTemplate(byte[] prefix, byte[] suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Get the placeholder to put in the envelope where the value goes
+     */
+    public static String slot() {
+        return SLOT;
+    }
+
+    /**
+     * Serialize an envelope holding {@link #slot()} as exactly one string value
+     */
+    public static JsonRequestTemplate of(ObjectNode envelope) {
+        String json = envelope.toString();
+        String quotedSlot = "\"" + SLOT + "\"";
+        int start = json.indexOf(quotedSlot);
+        if (start < 0 || json.indexOf(quotedSlot, start + 1) >= 0) {
+            throw new IllegalArgumentException("Request envelope must contain the slot exactly once");
+        }
+        return new JsonRequestTemplate(json.substring(0, start).getBytes(StandardCharsets.UTF_8),
+                json.substring(start + quotedSlot.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write the envelope with the value escaped into its slot
+     */
+    public void writeTo(String value, OutputStream out) throws IOException {
+        out.write(prefix);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeString(value);
+        }
+        out.write(suffix);
+    }
+}
@@ -0,0 +1,37 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Raised when the LLM API answers with a non-success HTTP status
+ */
+public class LlmApiException extends IOException {
+
+    private final int statusCode;
+    private final Duration retryAfter;
+
+    public LlmApiException(String message, int statusCode, Duration retryAfter) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Get the delay requested by the server's Retry-After header, or null if none was sent
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Check if the server rejected the call because of quota or overload
+     */
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+}
@@ -0,0 +1,59 @@
+package demoproject.services;
+
+/**
+ * Identifies which requirement and pipeline stage an LLM call is made for,
+ * so token usage can be attributed
+ */
+public class LlmCallContext {
+
+    /**
+     * Pipeline stage issuing the call
+     */
+    public enum Stage {
+        TEST_GENERATION("TestGenerator"),
+        CODE_GENERATION("CodeGenerator"),
+        REFACTORING("RefactorEngine"),
+        VALIDATION("Validator"),
+        OTHER("Other");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Context for calls not made on behalf of a requirement, such as connection probes
+     */
+    public static final LlmCallContext NONE = new LlmCallContext("-", Stage.OTHER);
+
+    private final String requirementId;
+    private final Stage stage;
+
+    private LlmCallContext(String requirementId, Stage stage) {
+        this.requirementId = requirementId;
+        this.stage = stage;
+    }
+
+    public static LlmCallContext of(String requirementId, Stage stage) {
+        return new LlmCallContext(requirementId != null ? requirementId : "-", stage);
+    }
+
+    public String getRequirementId() {
+        return requirementId;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    @Override
+    public String toString() {
+        return requirementId + "/" + stage.getDisplayName();
+    }
+}
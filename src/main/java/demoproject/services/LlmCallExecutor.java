@@ -0,0 +1,388 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs LLM calls under the rate limiter, retrying transient failures with jittered
+ * exponential backoff. When hedging is enabled, an async call whose first attempt is still
+ * running after the observed p95 latency gets a second identical call; the first success wins
+ * and the other call is cancelled.
+ */
+public class LlmCallExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmCallExecutor.class);
+
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final LlmRateLimiter rateLimiter;
+    private final LlmRetryPolicy retryPolicy;
+    private final boolean hedgingEnabled;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_WINDOW);
+
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    public LlmCallExecutor(LlmRateLimiter rateLimiter, LlmRetryPolicy retryPolicy, boolean hedgingEnabled) {
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    /**
+     * Run a blocking call, retrying transient failures
+     */
+    public <T> T execute(int estimatedTokens, ApiCall<T> call) throws IOException {
+        return execute(estimatedTokens, call, () -> true);
+    }
+
+    /**
+     * Run a blocking call, retrying transient failures only while canRetry allows it
+     * (a streaming call must not be repeated once part of its output was delivered)
+     */
+    public <T> T execute(int estimatedTokens, ApiCall<T> call, BooleanSupplier canRetry) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            LlmRateLimiter.Permit permit;
+            try {
+                permit = rateLimiter.acquireBlocking(estimatedTokens);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the LLM rate limiter");
+            }
+
+            long startNanos = System.nanoTime();
+            try {
+                T result = call.call();
+                permit.onSuccess();
+                latencies.record(System.nanoTime() - startNanos);
+                return result;
+            } catch (IOException | RuntimeException e) {
+                release(permit, e);
+                if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(e) || !canRetry.getAsBoolean()) {
+                    throw e;
+                }
+                Duration delay = retryPolicy.delayBefore(attempt + 1, retryAfterOf(e));
+                logRetry(e, attempt + 1, delay);
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to retry the LLM call");
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a non-blocking call, retrying transient failures and hedging slow calls when enabled
+     */
+    public <T> CompletableFuture<T> executeAsync(int estimatedTokens, Supplier<CompletableFuture<T>> call) {
+        Duration hedgeDelay = hedgingEnabled ? latencies.percentile(HEDGE_PERCENTILE, MIN_LATENCY_SAMPLES) : null;
+        if (hedgeDelay == null) {
+            return attemptAsync(estimatedTokens, call, 1, retryPolicy.getMaxAttempts(), new AttemptListener<>() { });
+        }
+        return new HedgedCall<>(estimatedTokens, call).start(hedgeDelay);
+    }
+
+    /**
+     * Make an attempt once the rate limiter grants a permit, then retry it until it succeeds,
+     * fails for good or reaches maxAttempts
+     */
+    private <T> CompletableFuture<T> attemptAsync(int estimatedTokens, Supplier<CompletableFuture<T>> call, int attempt,
+            int maxAttempts, AttemptListener<T> listener) {
+        return rateLimiter.acquire(estimatedTokens)
+                .thenCompose(permit -> {
+                    if (listener.isAbandoned()) {
+                        permit.onFailure();
+                        return CompletableFuture.<T>failedFuture(new CancellationException("LLM call no longer needed"));
+                    }
+                    long startNanos = System.nanoTime();
+                    CompletableFuture<T> inFlight;
+                    try {
+                        inFlight = call.get();
+                    } catch (RuntimeException e) {
+                        inFlight = CompletableFuture.failedFuture(e);
+                    }
+                    listener.started(attempt, inFlight);
+                    return inFlight
+                            .handle((result, error) -> {
+                                if (error == null) {
+                                    permit.onSuccess();
+                                    latencies.record(System.nanoTime() - startNanos);
+                                    return CompletableFuture.completedFuture(result);
+                                }
+                                Throwable cause = unwrap(error);
+                                release(permit, cause);
+                                if (attempt >= maxAttempts || !retryPolicy.isRetryable(cause)) {
+                                    return CompletableFuture.<T>failedFuture(cause);
+                                }
+                                Duration delay = retryPolicy.delayBefore(attempt + 1, retryAfterOf(cause));
+                                logRetry(cause, attempt + 1, delay);
+                                CompletableFuture<T> retry = new CompletableFuture<>();
+                                rateLimiter.getScheduler().schedule(
+                                        () -> attemptAsync(estimatedTokens, call, attempt + 1, maxAttempts, listener)
+                                                .whenComplete((value, retryError) -> {
+                                                    if (retryError == null) {
+                                                        retry.complete(value);
+                                                    } else {
+                                                        retry.completeExceptionally(unwrap(retryError));
+                                                    }
+                                                }),
+                                        delay.toMillis(), TimeUnit.MILLISECONDS);
+                                return retry;
+                            })
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    /**
+     * Report the outcome of a failed call to the rate limiter
+     */
+    private static void release(LlmRateLimiter.Permit permit, Throwable error) {
+        if (error instanceof LlmApiException apiError && apiError.isThrottled()) {
+            permit.onThrottled(apiError.getRetryAfter());
+        } else {
+            permit.onFailure();
+        }
+    }
+
+    private void logRetry(Throwable error, int nextAttempt, Duration delay) {
+        retries.incrementAndGet();
+        logger.warn("LLM call failed ({}), retrying attempt {}/{} in {} ms",
+                error.getMessage(), nextAttempt, retryPolicy.getMaxAttempts(), delay.toMillis());
+    }
+
+    private static Duration retryAfterOf(Throwable error) {
+        return error instanceof LlmApiException apiError ? apiError.getRetryAfter() : null;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Statistics
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Get the current hedging threshold, or null until enough latencies were observed
+     */
+    public Duration getHedgeDelay() {
+        return latencies.percentile(HEDGE_PERCENTILE, MIN_LATENCY_SAMPLES);
+    }
+
+    /**
+     * A single API call that may fail with an I/O error
+     */
+    @FunctionalInterface
+    public interface ApiCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Follows the attempts of an async call
+     */
+    private interface AttemptListener<T> {
+        /**
+         * Check if the call's outcome is no longer needed, so an attempt that was granted a
+         * permit should not be sent
+         */
+        default boolean isAbandoned() {
+            return false;
+        }
+
+        /**
+         * An attempt was sent and holds a rate limiter permit
+         */
+        default void started(int attempt, CompletableFuture<T> inFlight) {
+        }
+    }
+
+    /**
+     * A primary call plus at most one hedge. The hedge timer starts when the primary's first
+     * attempt is sent, so time spent queued for a permit does not count against the p95
+     * threshold, which measures only the time a call takes once sent. Once that attempt
+     * finishes no hedge is sent: a primary that is being retried is not hedged, and the
+     * hedge itself is never retried. The first success completes the result and cancels
+     * the other request; the result only fails once every call that was sent has failed.
+     */
+    private class HedgedCall<T> {
+        private final int estimatedTokens;
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<CompletableFuture<T>> inFlight = new ArrayList<>();
+        private int outstanding;
+        private boolean settled;
+        private boolean hedgeable;
+        private ScheduledFuture<?> timer;
+
+        HedgedCall(int estimatedTokens, Supplier<CompletableFuture<T>> call) {
+            this.estimatedTokens = estimatedTokens;
+            this.call = call;
+        }
+
+        CompletableFuture<T> start(Duration hedgeDelay) {
+            synchronized (this) {
+                outstanding = 1;
+            }
+            result.whenComplete((value, error) -> cancelOthers());
+            attemptAsync(estimatedTokens, call, 1, retryPolicy.getMaxAttempts(), new AttemptListener<>() {
+                @Override
+                public boolean isAbandoned() {
+                    return result.isDone();
+                }
+
+                @Override
+                public void started(int attempt, CompletableFuture<T> attemptInFlight) {
+                    track(attemptInFlight);
+                    if (attempt == 1) {
+                        startTimer(hedgeDelay, attemptInFlight);
+                    }
+                }
+            }).whenComplete((value, error) -> onComplete(value, error, false));
+            return result;
+        }
+
+        private void startTimer(Duration hedgeDelay, CompletableFuture<T> firstAttempt) {
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                hedgeable = true;
+                timer = rateLimiter.getScheduler().schedule(this::sendHedge, hedgeDelay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            firstAttempt.whenComplete((value, error) -> stopTimer());
+        }
+
+        private synchronized void stopTimer() {
+            hedgeable = false;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+
+        private void sendHedge() {
+            synchronized (this) {
+                if (!hedgeable || result.isDone()) {
+                    return;
+                }
+                hedgeable = false;
+                outstanding++;
+            }
+            hedgesSent.incrementAndGet();
+            logger.debug("LLM call slower than p95, sending hedged request");
+            attemptAsync(estimatedTokens, call, 1, 1, new AttemptListener<>() {
+                @Override
+                public boolean isAbandoned() {
+                    return result.isDone();
+                }
+
+                @Override
+                public void started(int attempt, CompletableFuture<T> attemptInFlight) {
+                    track(attemptInFlight);
+                }
+            }).whenComplete((value, error) -> onComplete(value, error, true));
+        }
+
+        private void track(CompletableFuture<T> attemptInFlight) {
+            synchronized (this) {
+                if (!result.isDone()) {
+                    inFlight.add(attemptInFlight);
+                    return;
+                }
+            }
+            attemptInFlight.cancel(true);
+        }
+
+        /**
+         * Cancel the requests still running once the result is known, so the losing request
+         * stops consuming tokens and its usage is not recorded
+         */
+        private void cancelOthers() {
+            List<CompletableFuture<T>> running;
+            synchronized (this) {
+                stopTimer();
+                running = new ArrayList<>(inFlight);
+                inFlight.clear();
+            }
+            running.forEach(attemptInFlight -> attemptInFlight.cancel(true));
+        }
+
+        private void onComplete(T value, Throwable error, boolean fromHedge) {
+            boolean won;
+            boolean failed;
+            synchronized (this) {
+                outstanding--;
+                won = error == null && !settled;
+                failed = error != null && outstanding == 0 && !settled;
+                settled |= won || failed;
+            }
+            // Count the win before completing, so the statistics are current once callers see the result
+            if (won) {
+                if (fromHedge) {
+                    hedgesWon.incrementAndGet();
+                }
+                result.complete(value);
+            } else if (failed) {
+                result.completeExceptionally(unwrap(error));
+            }
+        }
+    }
+
+    /**
+     * Sliding window of recent successful call latencies
+     */
+    private static class LatencyTracker {
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        LatencyTracker(int window) {
+            this.samples = new long[window];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized Duration percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return null;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+            return Duration.ofNanos(sorted[index]);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Shared, pooled HTTP transport for LLM API calls.
+ * Keeps connections alive between prompts so the pipeline stages reuse
+ * TLS sessions instead of opening a new client per service. A non-blocking
+ * client is started on first async use and negotiates HTTP/2 where the server
+ * supports it, so many prompts can share a few connections and I/O threads.
+ */
+public class LlmHttpTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmHttpTransport.class);
+
+    private static final Timeout CONNECT_TIMEOUT = Timeout.ofSeconds(10);
+    private static final Timeout RESPONSE_TIMEOUT = Timeout.ofMinutes(3);
+    private static final Timeout CONNECTION_REQUEST_TIMEOUT = Timeout.ofMinutes(5);
+    private static final TimeValue DEFAULT_KEEP_ALIVE = TimeValue.ofSeconds(60);
+    private static final TimeValue IDLE_EVICTION = TimeValue.ofSeconds(30);
+    private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(5);
+
+    private static LlmHttpTransport shared;
+
+    private final int maxPerRoute;
+    private final int maxTotal;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private CloseableHttpAsyncClient asyncClient;
+
+    public LlmHttpTransport(AgentConfig config) {
+        this.maxPerRoute = config.getHttpMaxConnectionsPerRoute();
+        this.maxTotal = config.getHttpMaxConnectionsTotal();
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxPerRoute)
+                .setMaxConnTotal(maxTotal)
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .setDefaultRequestConfig(requestConfig())
+                // LlmCallExecutor owns retries; the client's own 429/503 retry would hide throttling from it
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(IDLE_EVICTION)
+                .build();
+
+        logger.debug("Created pooled LLM transport (maxPerRoute={}, maxTotal={})", maxPerRoute, maxTotal);
+    }
+
+    private static ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(RESPONSE_TIMEOUT)
+                .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                .build();
+    }
+
+    private static RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT)
+                .setResponseTimeout(RESPONSE_TIMEOUT)
+                .build();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            // Honour the server's Keep-Alive header, otherwise keep the connection warm
+            TimeValue serverValue = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(serverValue) ? serverValue : DEFAULT_KEEP_ALIVE;
+        };
+    }
+
+    /**
+     * Get the non-blocking client, starting it on first use
+     */
+    private synchronized CloseableHttpAsyncClient asyncClient() {
+        if (asyncClient == null) {
+            PoolingAsyncClientConnectionManager asyncConnectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnPerRoute(maxPerRoute)
+                    .setMaxConnTotal(maxTotal)
+                    .setDefaultConnectionConfig(connectionConfig())
+                    .setDefaultTlsConfig(TlsConfig.custom()
+                            .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                            .build())
+                    .build();
+
+            asyncClient = HttpAsyncClients.custom()
+                    .setConnectionManager(asyncConnectionManager)
+                    .setIOReactorConfig(IOReactorConfig.custom()
+                            .setIoThreadCount(Math.max(2, Runtime.getRuntime().availableProcessors() / 2))
+                            .setSoTimeout(RESPONSE_TIMEOUT)
+                            .build())
+                    .setKeepAliveStrategy(keepAliveStrategy())
+                    .setDefaultRequestConfig(requestConfig())
+                    .disableAutomaticRetries()
+                    .evictExpiredConnections()
+                    .evictIdleConnections(IDLE_EVICTION)
+                    .build();
+            asyncClient.start();
+            logger.debug("Started async LLM transport (maxPerRoute={}, maxTotal={})", maxPerRoute, maxTotal);
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Get the process-wide transport, creating it from the given configuration on first use
+     */
+    public static synchronized LlmHttpTransport shared(AgentConfig config) {
+        if (shared == null) {
+            shared = new LlmHttpTransport(config);
+        }
+        return shared;
+    }
+
+    /**
+     * Close the process-wide transport; a new one is created on the next call to {@link #shared}
+     */
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Execute a request, handing the response to the handler before the connection is released
+     */
+    public <T> T execute(HttpUriRequestBase request, HttpClientResponseHandler<? extends T> handler) throws IOException {
+        return httpClient.execute(request, handler);
+    }
+
+    /**
+     * Execute a request without blocking the calling thread. Cancelling the returned future
+     * aborts the exchange.
+     */
+    public CompletableFuture<SimpleHttpResponse> executeAsync(SimpleHttpRequest request) {
+        CompletableFuture<SimpleHttpResponse> future = new CompletableFuture<>();
+        Future<SimpleHttpResponse> exchange = asyncClient().execute(request, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Get connection pool statistics
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Close the client and all pooled connections
+     */
+    public void close() {
+        logger.debug("Closing LLM transport, pool stats: {}", connectionManager.getTotalStats());
+        httpClient.close(CloseMode.GRACEFUL);
+        synchronized (this) {
+            if (asyncClient != null) {
+                asyncClient.close(CloseMode.GRACEFUL);
+                asyncClient = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package demoproject.services;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs one summary line per LLM call (status, latency, sizes, response hash) and the full
+ * prompt and response only for sampled calls or calls made for the requirement being debugged.
+ * Payloads are truncated to a byte limit and only rendered when the line is actually written.
+ */
+public class LlmPayloadLogger {
+
+    /** Logger name, so payload lines can be routed or silenced separately in logback.xml */
+    public static final String LOGGER_NAME = "demoproject.llm.payload";
+
+    private static final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final double sampleRate;
+    private final int maxBytes;
+    private final String debugRequirementId;
+
+    /**
+     * @param sampleRate         fraction of calls whose payloads are logged
+     * @param maxBytes           UTF-8 bytes kept of each payload, or 0 for no limit
+     * @param debugRequirementId requirement whose payloads are always logged, or null
+     */
+    public LlmPayloadLogger(double sampleRate, int maxBytes, String debugRequirementId) {
+        this.sampleRate = sampleRate;
+        this.maxBytes = maxBytes;
+        this.debugRequirementId = debugRequirementId != null && !debugRequirementId.isBlank() ? debugRequirementId : null;
+    }
+
+    /**
+     * Log a completed exchange with the API
+     */
+    public void logExchange(String providerName, LlmCallContext context, int status, long startNanos,
+            String prompt, String response) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+        logger.info("{} call {}: status={} latency={}ms prompt={} chars response={} chars hash={}",
+                providerName, context, status, latencyMs, prompt.length(), response.length(),
+                Integer.toHexString(response.hashCode()));
+
+        if (isCaptured(context)) {
+            logger.info("{} prompt for {}:\n{}", providerName, context, truncated(prompt));
+            logger.info("{} response for {}:\n{}", providerName, context, truncated(response));
+        }
+    }
+
+    private boolean isCaptured(LlmCallContext context) {
+        if (debugRequirementId != null && debugRequirementId.equals(context.getRequirementId())) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Wrap a payload so it is truncated only if the log line is rendered
+     */
+    public Object truncated(String payload) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return truncate(payload);
+            }
+        };
+    }
+
+    /**
+     * Cut a payload to the configured number of UTF-8 bytes, keeping whole characters
+     */
+    String truncate(String payload) {
+        if (maxBytes <= 0 || payload == null || payload.length() * 3 <= maxBytes) {
+            return payload;
+        }
+        int bytes = 0;
+        int end = 0;
+        while (end < payload.length()) {
+            int codePoint = payload.codePointAt(end);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > maxBytes) {
+                break;
+            }
+            bytes += size;
+            end += Character.charCount(codePoint);
+        }
+        if (end == payload.length()) {
+            return payload;
+        }
+        return payload.substring(0, end) + "... [truncated, " + payload.length() + " chars total]";
+    }
+}
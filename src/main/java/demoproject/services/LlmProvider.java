@@ -0,0 +1,90 @@
+package demoproject.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Wire format of an LLM API: how requests are built and how responses, streamed
+ * chunks and token usage are parsed. Transport, caching, rate limiting and retries
+ * stay in {@link LlmService} and are shared by every provider.
+ */
+public interface LlmProvider {
+
+    /**
+     * Get the display name used in logs and error messages
+     */
+    String getName();
+
+    /**
+     * Build the request URL for a plain or streaming generation
+     */
+    String buildRequestUrl(boolean streaming) throws IOException;
+
+    /**
+     * Get the headers sent with every request, such as authorization
+     */
+    Map<String, String> getRequestHeaders();
+
+    /**
+     * Write the JSON request body for a prompt straight to the request's output stream
+     */
+    void writeRequestBody(String prompt, boolean streaming, OutputStream out) throws IOException;
+
+    /**
+     * Build the JSON request body for a prompt, for clients that need it in memory
+     */
+    default byte[] buildRequestBody(String prompt, boolean streaming) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(prompt.length() + 1024);
+        try {
+            writeRequestBody(prompt, streaming, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by an in-memory stream
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Get a canonical description of the generation parameters, used in cache keys
+     */
+    String getRequestParameters();
+
+    /**
+     * Parse a successful (HTTP 200) response body
+     */
+    LlmResponse parseResponse(String responseBody) throws IOException;
+
+    /**
+     * Parse the data of one server-sent event; returns null for events that carry nothing,
+     * such as an end-of-stream marker
+     */
+    LlmResponse parseStreamChunk(String data) throws IOException;
+
+    /**
+     * Rough token estimate for budgeting before the real usage is known
+     */
+    default int estimateTokens(String text) {
+        return text.length() / 4 + 1;
+    }
+
+    /**
+     * Create the provider selected by {@link AgentConfig#getLlmProvider()}; Google Gemini when unset
+     */
+    static LlmProvider fromConfig(AgentConfig config) {
+        String name = config.getLlmProvider() != null ? config.getLlmProvider().trim().toLowerCase() : "google";
+        switch (name) {
+            case "google":
+            case "gemini":
+                return new GeminiProvider(config);
+            case "openai":
+            case "openai-compatible":
+                return new OpenAiCompatibleProvider(config);
+            default:
+                throw new IllegalArgumentException("Unsupported LLM provider: " + config.getLlmProvider());
+        }
+    }
+}
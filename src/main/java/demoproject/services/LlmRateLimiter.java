@@ -0,0 +1,289 @@
+package demoproject.services;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client-side governor for LLM calls.
+ * Combines token buckets for requests/min and tokens/min budgets with an AIMD
+ * concurrency limit: the limit grows by one per window of successful calls and
+ * halves when the server answers 429/503, pausing all calls for any Retry-After.
+ */
+public class LlmRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmRateLimiter.class);
+
+    private static final Duration DEFAULT_THROTTLE_PAUSE = Duration.ofSeconds(1);
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final int maxConcurrency;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final ScheduledExecutorService scheduler;
+
+    private double concurrencyLimit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private long lastDecreaseNanos;
+    private ScheduledFuture<?> wakeUp;
+
+    /**
+     * @param requestsPerMinute request budget, or 0 for unlimited
+     * @param tokensPerMinute   token budget, or 0 for unlimited
+     * @param maxConcurrency    upper bound for the adaptive concurrency limit
+     */
+    public LlmRateLimiter(int requestsPerMinute, int tokensPerMinute, int maxConcurrency) {
+        this.requestBucket = requestsPerMinute > 0 ? new TokenBucket(requestsPerMinute) : null;
+        this.tokenBucket = tokensPerMinute > 0 ? new TokenBucket(tokensPerMinute) : null;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.concurrencyLimit = this.maxConcurrency;
+        this.lastDecreaseNanos = System.nanoTime();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "llm-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Wait asynchronously for permission to send a call of the estimated size
+     */
+    public CompletableFuture<Permit> acquire(int estimatedTokens) {
+        return enqueue(estimatedTokens).future;
+    }
+
+    /**
+     * Block until permission is granted. An interrupted caller leaves the queue, and a permit
+     * granted to it meanwhile is released, so the interrupt never leaks concurrency.
+     */
+    public Permit acquireBlocking(int estimatedTokens) throws InterruptedException {
+        Waiter waiter = enqueue(estimatedTokens);
+        try {
+            return waiter.future.get();
+        } catch (InterruptedException e) {
+            boolean dequeued;
+            synchronized (this) {
+                dequeued = waiters.remove(waiter);
+            }
+            if (dequeued) {
+                // The caller may have been holding back smaller calls queued behind it
+                dispatch();
+            } else {
+                waiter.future.thenAccept(Permit::onFailure);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private Waiter enqueue(int estimatedTokens) {
+        Waiter waiter = new Waiter(estimatedTokens);
+        synchronized (this) {
+            waiters.addLast(waiter);
+        }
+        dispatch();
+        return waiter;
+    }
+
+    /**
+     * Get the executor used for timed wake-ups, shared with callers that need to delay work
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Grant permits to queued callers in arrival order while every budget allows it
+     */
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            long waitNanos = 0;
+            while (!waiters.isEmpty()) {
+                if (inFlight >= (int) concurrencyLimit) {
+                    break; // a release will dispatch again
+                }
+                if (now < pausedUntilNanos) {
+                    waitNanos = pausedUntilNanos - now;
+                    break;
+                }
+                Waiter next = waiters.peekFirst();
+                long requestWait = requestBucket != null ? requestBucket.nanosUntilAvailable(1, now) : 0;
+                long tokenWait = tokenBucket != null ? tokenBucket.nanosUntilAvailable(next.estimatedTokens, now) : 0;
+                if (requestWait > 0 || tokenWait > 0) {
+                    waitNanos = Math.max(requestWait, tokenWait);
+                    break;
+                }
+                if (requestBucket != null) {
+                    requestBucket.take(1);
+                }
+                if (tokenBucket != null) {
+                    tokenBucket.take(next.estimatedTokens);
+                }
+                inFlight++;
+                waiters.pollFirst();
+                granted.add(next);
+            }
+            if (waitNanos > 0 && wakeUp == null) {
+                wakeUp = scheduler.schedule(this::wakeUp, waitNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        // Complete outside the lock so callers' continuations never run while holding it
+        for (Waiter waiter : granted) {
+            waiter.future.complete(new Permit(System.nanoTime()));
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (this) {
+            wakeUp = null;
+        }
+        dispatch();
+    }
+
+    private synchronized void release() {
+        inFlight--;
+    }
+
+    private synchronized void increase() {
+        // Additive increase: roughly +1 for every "limit" successful calls
+        concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+    }
+
+    private synchronized void decrease(long grantedAtNanos, Duration retryAfter) {
+        long now = System.nanoTime();
+        Duration pause = retryAfter != null ? retryAfter : DEFAULT_THROTTLE_PAUSE;
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + pause.toNanos());
+
+        // Only the first rejection of a burst halves the limit; calls that were already
+        // in flight when we backed off carry no new information
+        if (grantedAtNanos > lastDecreaseNanos) {
+            concurrencyLimit = Math.max(1.0, concurrencyLimit / 2.0);
+            lastDecreaseNanos = now;
+            logger.warn("LLM API throttled, concurrency limit reduced to {} and paused for {} ms",
+                    (int) concurrencyLimit, pause.toMillis());
+        }
+    }
+
+    /**
+     * Get the current adaptive concurrency limit
+     */
+    public synchronized int getConcurrencyLimit() {
+        return (int) concurrencyLimit;
+    }
+
+    /**
+     * Get the number of calls currently in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Permission to send one call. Exactly one of the outcome methods must be called.
+     */
+    public class Permit {
+        private final long grantedAtNanos;
+        private boolean released;
+
+        private Permit(long grantedAtNanos) {
+            this.grantedAtNanos = grantedAtNanos;
+        }
+
+        /**
+         * The call succeeded
+         */
+        public void onSuccess() {
+            if (finish()) {
+                increase();
+                dispatch();
+            }
+        }
+
+        /**
+         * The server rejected the call because of quota or overload
+         */
+        public void onThrottled(Duration retryAfter) {
+            if (finish()) {
+                decrease(grantedAtNanos, retryAfter);
+                dispatch();
+            }
+        }
+
+        /**
+         * The call failed for a reason unrelated to throttling
+         */
+        public void onFailure() {
+            if (finish()) {
+                dispatch();
+            }
+        }
+
+        private synchronized boolean finish() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            release();
+            return true;
+        }
+    }
+
+    /**
+     * Queued caller waiting for a permit
+     */
+    private static class Waiter {
+        final int estimatedTokens;
+        final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        Waiter(int estimatedTokens) {
+            this.estimatedTokens = estimatedTokens;
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at a per-minute rate. Bursts are capped at a
+     * tenth of the minute budget so a cold start cannot spend the whole quota at once.
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long lastRefillNanos;
+
+        TokenBucket(int perMinute) {
+            this.capacity = Math.max(1.0, perMinute / 10.0);
+            this.refillPerNano = (double) perMinute / NANOS_PER_MINUTE;
+            this.available = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        long nanosUntilAvailable(int amount, long now) {
+            available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+            // A single call larger than the burst size is admitted once the bucket is full
+            double needed = Math.min(amount, capacity);
+            return available >= needed ? 0 : (long) Math.ceil((needed - available) / refillPerNano);
+        }
+
+        void take(int amount) {
+            available -= amount;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package demoproject.services;
+
+/**
+ * Generated text and token usage parsed from one LLM response or streamed chunk
+ */
+public class LlmResponse {
+
+    private final String text;
+    private final int promptTokens;
+    private final int completionTokens;
+
+    public LlmResponse(String text, int promptTokens, int completionTokens) {
+        this.text = text;
+        this.promptTokens = promptTokens;
+        this.completionTokens = completionTokens;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the prompt tokens reported by the API, or 0 if the response carried no usage
+     */
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    /**
+     * Get the generated tokens reported by the API, or 0 if the response carried no usage
+     */
+    public int getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public int getTotalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    public boolean hasUsage() {
+        return promptTokens > 0 || completionTokens > 0;
+    }
+}
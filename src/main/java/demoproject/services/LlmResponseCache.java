@@ -0,0 +1,239 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed cache for LLM responses.
+ * Entries are keyed by a SHA-256 hash of the model, generation parameters and prompt,
+ * held in an in-memory LRU tier and persisted to disk so later runs can reuse them.
+ * Only the memory tier is accessed under a lock; disk entries are read, and written by an
+ * atomic move of a temporary file, without holding it, so callers never queue behind file I/O.
+ */
+public class LlmResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    private static final String ENTRY_SUFFIX = ".txt";
+
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Map<String, String> memory;
+    private final ReentrantLock memoryLock = new ReentrantLock();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LlmResponseCache(Path directory, int maxMemoryEntries, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxMemoryEntries;
+            }
+        };
+
+        try {
+            Files.createDirectories(directory);
+            diskBytes.set(listEntries().stream().mapToLong(LlmResponseCache::sizeOf).sum());
+            logger.debug("Opened LLM response cache at {} ({} bytes on disk)", directory, diskBytes.get());
+        } catch (IOException e) {
+            logger.warn("Could not initialise LLM cache directory: {}", directory, e);
+        }
+    }
+
+    /**
+     * Build the cache key for a request
+     */
+    public static String key(String model, String generationParameters, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] {model, generationParameters, prompt}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Look up a cached response, checking memory first and then disk
+     */
+    public String get(String key) {
+        String value = getFromMemory(key);
+        if (value != null) {
+            memoryHits.incrementAndGet();
+            return value;
+        }
+
+        Path entry = entryPath(key);
+        try {
+            value = Files.readString(entry, StandardCharsets.UTF_8);
+            // Touch the entry so disk eviction stays least-recently-used
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            putInMemory(key, value);
+            diskHits.incrementAndGet();
+            return value;
+        } catch (NoSuchFileException e) {
+            // Not cached, or evicted meanwhile
+        } catch (IOException e) {
+            logger.warn("Failed to read cached LLM response: {}", entry, e);
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a response in both tiers
+     */
+    public void put(String key, String value) {
+        putInMemory(key, value);
+
+        Path entry = entryPath(key);
+        try {
+            long previous = sizeOf(entry);
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.writeString(temp, value, StandardCharsets.UTF_8);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(Files.size(entry) - previous) > maxDiskBytes) {
+                evictDiskEntries();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to persist LLM response to cache: {}", entry, e);
+        }
+    }
+
+    private String getFromMemory(String key) {
+        memoryLock.lock();
+        try {
+            return memory.get(key);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private void putInMemory(String key, String value) {
+        memoryLock.lock();
+        try {
+            memory.put(key, value);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the least recently used disk entries until the tier fits its size bound. One
+     * writer evicts at a time; the others skip it, as the running eviction frees space for them.
+     * The tier's size is recounted from the listing, correcting any drift from concurrent writes.
+     */
+    private void evictDiskEntries() throws IOException {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Path> entries = listEntries();
+            entries.sort(Comparator.comparing(LlmResponseCache::lastModified));
+            long size = entries.stream().mapToLong(LlmResponseCache::sizeOf).sum();
+            for (Path entry : entries) {
+                if (size <= maxDiskBytes) {
+                    break;
+                }
+                long entrySize = sizeOf(entry);
+                if (Files.deleteIfExists(entry)) {
+                    size -= entrySize;
+                    evictions.incrementAndGet();
+                }
+            }
+            diskBytes.set(size);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .toList());
+        }
+    }
+
+    private Path entryPath(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    // Statistics
+    public long getHits() {
+        return memoryHits.get() + diskHits.get();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get a one-line summary of cache statistics
+     */
+    public String getSummary() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        double hitRate = total == 0 ? 0.0 : (double) hits / total * 100.0;
+        return String.format("LLM cache: %d hits (%d memory, %d disk), %d misses, %.1f%% hit rate, %d evictions",
+                hits, getMemoryHits(), getDiskHits(), getMisses(), hitRate, getEvictions());
+    }
+}
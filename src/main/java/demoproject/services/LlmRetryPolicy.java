@@ -0,0 +1,67 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.NoHttpResponseException;
+
+/**
+ * Retry policy for LLM calls: which failures are worth another attempt, and how long
+ * to wait before it (exponential backoff with full jitter, never shorter than Retry-After)
+ */
+public class LlmRetryPolicy {
+
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(408, 429, 500, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    public LlmRetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Check if a failed attempt may succeed when repeated
+     */
+    public boolean isRetryable(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof LlmApiException apiError) {
+            return RETRYABLE_STATUS_CODES.contains(apiError.getStatusCode());
+        }
+        if (cause instanceof SocketTimeoutException) {
+            return true; // a read timeout is an InterruptedIOException, but still transient
+        }
+        if (cause instanceof InterruptedIOException) {
+            return false;
+        }
+        return cause instanceof ConnectException
+                || cause instanceof NoHttpResponseException
+                || cause instanceof ConnectionClosedException
+                || (cause instanceof IOException && cause.getMessage() != null
+                        && cause.getMessage().contains("Connection reset"));
+    }
+
+    /**
+     * Get the delay before the given retry attempt (2 for the first retry)
+     */
+    public Duration delayBefore(int attempt, Duration retryAfter) {
+        long ceilingMillis = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt - 2, 20));
+        long jitteredMillis = ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+        Duration delay = Duration.ofMillis(jitteredMillis);
+        return retryAfter != null && retryAfter.compareTo(delay) > 0 ? retryAfter : delay;
+    }
+}
@@ -1,199 +1,597 @@
 package demoproject.services;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.ContentType;
-import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityTemplate;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
 import demoproject.config.AgentConfig;
 
 /**
- * Service for interacting with Google Gemini Large Language Models
+ * Service for interacting with Large Language Models.
+ * The wire format comes from the configured {@link LlmProvider}; caching, coalescing,
+ * rate limiting, retries and the HTTP transport are shared by every provider.
  */
 public class LlmService {
     private static final Logger logger = LoggerFactory.getLogger(LlmService.class);
+    private static final String SSE_DATA_PREFIX = "data:";
     private final AgentConfig config;
-    private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final LlmProvider provider;
+    private final LlmHttpTransport transport;
+    private final LlmResponseCache responseCache;
+    private final LlmRateLimiter rateLimiter;
+    private final LlmCallExecutor callExecutor;
+    private final Map<String, CompletableFuture<String>> inFlightCalls = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+    private final LlmUsageTracker usageTracker = new LlmUsageTracker();
+    private final PromptBudget promptBudget;
+    private final LlmPayloadLogger payloadLogger;
+    private final ExecutorService streamProducers;
 
     public LlmService(AgentConfig config) {
+        this(config, LlmHttpTransport.shared(config));
+    }
+
+    public LlmService(AgentConfig config, LlmHttpTransport transport) {
+        this(config, LlmProvider.fromConfig(config), transport);
+    }
+
+    public LlmService(AgentConfig config, LlmProvider provider, LlmHttpTransport transport) {
         this.config = config;
-        this.httpClient = HttpClients.createDefault();
-        this.objectMapper = new ObjectMapper();
+        this.provider = provider;
+        this.transport = transport;
+        this.responseCache = config.isLlmCacheEnabled()
+                ? new LlmResponseCache(Paths.get(config.getOutputFolder(), ".llm-cache"),
+                        config.getLlmCacheMemoryEntries(), config.getLlmCacheDiskMaxMb() * 1024L * 1024L)
+                : null;
+        this.rateLimiter = new LlmRateLimiter(config.getLlmRequestsPerMinute(), config.getLlmTokensPerMinute(),
+                config.getLlmMaxConcurrency());
+        this.callExecutor = new LlmCallExecutor(rateLimiter,
+                new LlmRetryPolicy(config.getLlmRetryMaxAttempts(), Duration.ofMillis(config.getLlmRetryBaseDelayMs()),
+                        Duration.ofMillis(config.getLlmRetryMaxDelayMs())),
+                config.isLlmHedgingEnabled());
+        this.promptBudget = new PromptBudget(config.getLlmPromptMaxTokens(), provider::estimateTokens);
+        this.payloadLogger = new LlmPayloadLogger(config.getLlmPayloadLogSampleRate(),
+                config.getLlmPayloadLogMaxBytes(), config.getLlmDebugRequirementId());
+        this.streamProducers = TaskExecutors.newBlockingIoExecutor(config, "llm-stream");
     }
 
     /**
-     * Generate code using Google Gemini
+     * Generate code using the configured LLM
      */
     public String generateCode(String prompt) {
+        return generateCode(prompt, LlmCallContext.NONE);
+    }
+
+    /**
+     * Generate code using the configured LLM, attributing token usage to the given context
+     */
+    public String generateCode(String prompt, LlmCallContext context) {
         try {
-            return generateWithGoogleGemini(prompt);
+            return generateWithProvider(prompt, context);
         } catch (Exception e) {
             logger.error("LLM API call failed: {}", e.getMessage());
-            throw new RuntimeException("Google Gemini API call failed", e);
+            throw new RuntimeException(provider.getName() + " API call failed", e);
         }
     }
 
     /**
-     * Generate test code using Google Gemini
+     * Generate test code using the configured LLM
      */
     public String generateTestCode(String prompt) {
+        return generateTestCode(prompt, LlmCallContext.NONE);
+    }
+
+    /**
+     * Generate test code using the configured LLM, attributing token usage to the given context
+     */
+    public String generateTestCode(String prompt, LlmCallContext context) {
         try {
-            return generateWithGoogleGemini(prompt);
+            return generateWithProvider(prompt, context);
         } catch (Exception e) {
             logger.error("LLM API call failed: {}", e.getMessage());
-            throw new RuntimeException("Google Gemini API call failed", e);
+            throw new RuntimeException(provider.getName() + " API call failed", e);
         }
     }
 
     /**
-     * Generate improvement suggestions using Google Gemini
+     * Generate improvement suggestions using the configured LLM
      */
     public String generateSuggestions(String prompt) {
+        return generateSuggestions(prompt, LlmCallContext.NONE);
+    }
+
+    /**
+     * Generate improvement suggestions using the configured LLM, attributing token usage to the given context
+     */
+    public String generateSuggestions(String prompt, LlmCallContext context) {
+        try {
+            return generateWithProvider(prompt, context);
+        } catch (Exception e) {
+            logger.error("LLM API call failed: {}", e.getMessage());
+            throw new RuntimeException(provider.getName() + " API call failed", e);
+        }
+    }
+
+    /**
+     * Generate code without blocking the calling thread
+     */
+    public CompletableFuture<String> generateCodeAsync(String prompt) {
+        return generateCodeAsync(prompt, LlmCallContext.NONE);
+    }
+
+    public CompletableFuture<String> generateCodeAsync(String prompt, LlmCallContext context) {
+        return wrapFailure(generateWithProviderAsync(prompt, context));
+    }
+
+    /**
+     * Generate test code without blocking the calling thread
+     */
+    public CompletableFuture<String> generateTestCodeAsync(String prompt) {
+        return generateTestCodeAsync(prompt, LlmCallContext.NONE);
+    }
+
+    public CompletableFuture<String> generateTestCodeAsync(String prompt, LlmCallContext context) {
+        return wrapFailure(generateWithProviderAsync(prompt, context));
+    }
+
+    /**
+     * Generate improvement suggestions without blocking the calling thread
+     */
+    public CompletableFuture<String> generateSuggestionsAsync(String prompt) {
+        return generateSuggestionsAsync(prompt, LlmCallContext.NONE);
+    }
+
+    public CompletableFuture<String> generateSuggestionsAsync(String prompt, LlmCallContext context) {
+        return wrapFailure(generateWithProviderAsync(prompt, context));
+    }
+
+    /**
+     * Generate text using the provider's streaming endpoint, handing each text delta
+     * to the callback as soon as it arrives. Returns the complete generated text.
+     */
+    public String generateStreaming(String prompt, Consumer<String> onDelta) {
+        return generateStreaming(prompt, LlmCallContext.NONE, onDelta);
+    }
+
+    /**
+     * Generate text using the provider's streaming endpoint, attributing token usage to the given context
+     */
+    public String generateStreaming(String prompt, LlmCallContext context, Consumer<String> onDelta) {
         try {
-            return generateWithGoogleGemini(prompt);
+            return generateWithProviderStreaming(prompt, context, onDelta);
         } catch (Exception e) {
             logger.error("LLM API call failed: {}", e.getMessage());
-            throw new RuntimeException("Google Gemini API call failed", e);
-        }
-    }
-
-    /**
-     * Generate code using Google Gemini API
-     */
-    private String generateWithGoogleGemini(String prompt) throws IOException, JsonProcessingException {
-        String apiUrl = config.getLlmApiUrl();
-        String apiKey = config.getLlmApiKey();
-        String model = config.getLlmModel();
-
-        logger.debug("Making Google Gemini API call to: {}", apiUrl);
-
-        // Build the full URL with API key
-        String fullUrl = apiUrl + "?key=" + apiKey;
-        HttpPost httpPost = new HttpPost(fullUrl);
-        httpPost.setHeader("Content-Type", "application/json");
-
-        // Create the request body according to Google Gemini API format
-        ObjectNode requestBody = objectMapper.createObjectNode();
-        
-        // Add contents array
-        ArrayNode contentsArray = objectMapper.createArrayNode();
-        ObjectNode content = objectMapper.createObjectNode();
-        ArrayNode parts = objectMapper.createArrayNode();
-        ObjectNode part = objectMapper.createObjectNode();
-        part.put("text", prompt);
-        parts.add(part);
-        content.set("parts", parts);
-        contentsArray.add(content);
-        requestBody.set("contents", contentsArray);
-
-        // Add generation config for better control
-        ObjectNode generationConfig = objectMapper.createObjectNode();
-        generationConfig.put("temperature", 0.2);
-        generationConfig.put("topK", 40);
-        generationConfig.put("topP", 0.8);
-        generationConfig.put("maxOutputTokens", 2048);
-        generationConfig.put("candidateCount", 1);
-        requestBody.set("generationConfig", generationConfig);
-
-        // Add safety settings
-        ArrayNode safetySettings = objectMapper.createArrayNode();
-        String[] categories = {"HARM_CATEGORY_HARASSMENT", "HARM_CATEGORY_HATE_SPEECH", 
-                             "HARM_CATEGORY_SEXUALLY_EXPLICIT", "HARM_CATEGORY_DANGEROUS_CONTENT"};
-        for (String category : categories) {
-            ObjectNode safetySetting = objectMapper.createObjectNode();
-            safetySetting.put("category", category);
-            safetySetting.put("threshold", "BLOCK_MEDIUM_AND_ABOVE");
-            safetySettings.add(safetySetting);
-        }
-        requestBody.set("safetySettings", safetySettings);
-
-        StringEntity entity = new StringEntity(requestBody.toString(), ContentType.APPLICATION_JSON);
-        httpPost.setEntity(entity);
-
-        logger.debug("Request body: {}", requestBody.toString());
-
-        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-            String responseBody = EntityUtils.toString(response.getEntity());
-            logger.info("Response status: {}, Response body: {}", response.getCode(), responseBody);
-            
-            if (response.getCode() != 200) {
-                logger.error("Google Gemini API call failed with status: {}, response: {}", response.getCode(), responseBody);
-                throw new IOException("Google Gemini API call failed with status: " + response.getCode() + ", response: " + responseBody);
+            throw new RuntimeException(provider.getName() + " API call failed", e);
+        }
+    }
+
+    /**
+     * Stream the text deltas of a generation to a subscriber.
+     * The publisher is cold: each subscription issues its own API call, on a thread of the
+     * configured execution mode.
+     */
+    public Flow.Publisher<String> streamGeneration(String prompt) {
+        return subscriber -> {
+            SubmissionPublisher<String> publisher = new SubmissionPublisher<>(streamProducers, Flow.defaultBufferSize());
+            publisher.subscribe(subscriber);
+            streamProducers.execute(() -> {
+                try {
+                    generateStreaming(prompt, publisher::submit);
+                    publisher.close();
+                } catch (RuntimeException e) {
+                    publisher.closeExceptionally(e);
+                }
+            });
+        };
+    }
+
+    /**
+     * Complete the future with the same RuntimeException the blocking methods throw
+     */
+    private CompletableFuture<String> wrapFailure(CompletableFuture<String> future) {
+        return future.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            logger.error("LLM API call failed: {}", cause.getMessage());
+            throw new RuntimeException(provider.getName() + " API call failed", cause);
+        });
+    }
+
+    /**
+     * Generate text with the provider, answering from the response cache when possible
+     */
+    private String generateWithProvider(String prompt, LlmCallContext context) throws IOException {
+        if (config.isLlmHedgingEnabled()) {
+            // Hedging needs the non-blocking client, so wait on the async path instead
+            return awaitGeneration(generateWithProviderAsync(prompt, context));
+        }
+
+        String cacheKey = cacheKey(prompt);
+        String cached = getCached(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        return singleFlight(cacheKey, () -> {
+            String generatedText = callExecutor.execute(provider.estimateTokens(prompt), () -> callApi(prompt, context));
+            putCached(cacheKey, generatedText);
+            return generatedText;
+        });
+    }
+
+    /**
+     * Block on an async generation, rethrowing its failure as the blocking path would
+     */
+    private static String awaitGeneration(CompletableFuture<String> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioError) {
+                throw ioError;
             }
+            throw e.getCause() instanceof RuntimeException runtimeError ? runtimeError : e;
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #generateWithProvider}
+     */
+    private CompletableFuture<String> generateWithProviderAsync(String prompt, LlmCallContext context) {
+        String cacheKey = cacheKey(prompt);
+        String cached = getCached(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return singleFlightAsync(cacheKey,
+                () -> callExecutor.executeAsync(provider.estimateTokens(prompt), () -> callApiAsync(prompt, context))
+                        .thenApply(generatedText -> {
+                            putCached(cacheKey, generatedText);
+                            return generatedText;
+                        }));
+    }
+
+    /**
+     * Streaming counterpart of {@link #generateWithProvider}; a cached or coalesced
+     * response is delivered as a single delta
+     */
+    private String generateWithProviderStreaming(String prompt, LlmCallContext context, Consumer<String> onDelta) throws IOException {
+        String cacheKey = cacheKey(prompt);
+        String cached = getCached(cacheKey);
+        if (cached != null) {
+            onDelta.accept(cached);
+            return cached;
+        }
+
+        // Once deltas reached the caller a retry would repeat them, so only retry before the first one
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<String> trackingDelta = delta -> {
+            delivered.set(true);
+            onDelta.accept(delta);
+        };
+        String generatedText = singleFlight(cacheKey, () -> {
+            String streamedText = callExecutor.execute(provider.estimateTokens(prompt),
+                    () -> callApiStreaming(prompt, context, trackingDelta),
+                    () -> !delivered.get());
+            putCached(cacheKey, streamedText);
+            return streamedText;
+        });
+        if (!delivered.get() && !generatedText.isEmpty()) {
+            onDelta.accept(generatedText); // joined another caller's call
+        }
+        return generatedText;
+    }
+
+    private String getCached(String cacheKey) {
+        String cached = responseCache != null ? responseCache.get(cacheKey) : null;
+        if (cached != null) {
+            logger.debug("Answered {} prompt from cache: {}", provider.getName(), cacheKey);
+        }
+        return cached;
+    }
 
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            
-            // Check for error in response
-            if (jsonResponse.has("error")) {
-                JsonNode error = jsonResponse.get("error");
-                String errorMessage = error.path("message").asText("Unknown error");
-                logger.error("Google Gemini API returned error: {}", errorMessage);
-                throw new IOException("Google Gemini API error: " + errorMessage);
+    private void putCached(String cacheKey, String generatedText) {
+        if (responseCache != null) {
+            responseCache.put(cacheKey, generatedText);
+        }
+    }
+
+    /**
+     * Run a blocking call unless an identical one is already in flight, in which case
+     * wait for and share its result
+     */
+    private String singleFlight(String key, LlmCallExecutor.ApiCall<String> call) throws IOException {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlightCalls.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCalls.incrementAndGet();
+            logger.debug("Joined in-flight {} call: {}", provider.getName(), key);
+            return awaitGeneration(existing);
+        }
+
+        String result;
+        try {
+            result = call.call();
+        } catch (IOException | RuntimeException e) {
+            inFlightCalls.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Deregister first so a caller arriving after completion starts a fresh call
+        inFlightCalls.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #singleFlight}
+     */
+    private CompletableFuture<String> singleFlightAsync(String key, Supplier<CompletableFuture<String>> call) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlightCalls.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedCalls.incrementAndGet();
+            logger.debug("Joined in-flight {} call: {}", provider.getName(), key);
+            return existing;
+        }
+
+        call.get().whenComplete((result, error) -> {
+            // Deregister first so a caller arriving after completion starts a fresh call
+            inFlightCalls.remove(key, flight);
+            if (error == null) {
+                flight.complete(result);
+            } else {
+                flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
             }
+        });
+        return flight;
+    }
+
+    /**
+     * Build the cache key for a request.
+     * Gemini URLs carry the model name, so the endpoint is included in the model part of the key.
+     */
+    private String cacheKey(String prompt) {
+        return LlmResponseCache.key(config.getLlmModel() + "@" + config.getLlmApiUrl(),
+                provider.getRequestParameters(), prompt);
+    }
+
+    /**
+     * Call the provider's API on the blocking client
+     */
+    private String callApi(String prompt, LlmCallContext context) throws IOException {
+        logger.debug("Making {} API call to: {}", provider.getName(), config.getLlmApiUrl());
+
+        HttpPost httpPost = new HttpPost(provider.buildRequestUrl(false));
+        provider.getRequestHeaders().forEach(httpPost::setHeader);
+
+        httpPost.setEntity(requestEntity(prompt, false));
+        logger.debug("Request prompt length: {}", prompt.length());
 
-            // Extract the generated text from the response
-            JsonNode candidates = jsonResponse.path("candidates");
-            logger.info("Candidates found: {}", candidates.size());
-            
-            if (candidates.isArray() && candidates.size() > 0) {
-                JsonNode firstCandidate = candidates.get(0);
-                logger.info("First candidate: {}", firstCandidate.toString());
-                
-                // Try different response formats
-                JsonNode contentResponse = firstCandidate.path("content");
-                if (contentResponse.isMissingNode()) {
-                    // Try direct text field
-                    String directText = firstCandidate.path("text").asText();
-                    if (!directText.isEmpty()) {
-                        logger.info("Found direct text: {}", directText);
-                        return directText;
+        // The handler consumes the entity so the connection goes straight back to the pool
+        long startNanos = System.nanoTime();
+        ApiResponse response = transport.execute(httpPost,
+                httpResponse -> new ApiResponse(httpResponse.getCode(), EntityUtils.toString(httpResponse.getEntity()),
+                        parseRetryAfter(httpResponse)));
+        return extractGeneratedText(response, prompt, context, startNanos);
+    }
+
+    /**
+     * Call the provider's API on the non-blocking client
+     */
+    private CompletableFuture<String> callApiAsync(String prompt, LlmCallContext context) {
+        logger.debug("Making async {} API call to: {}", provider.getName(), config.getLlmApiUrl());
+
+        SimpleRequestBuilder requestBuilder;
+        try {
+            requestBuilder = SimpleRequestBuilder.post(provider.buildRequestUrl(false));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        provider.getRequestHeaders().forEach(requestBuilder::setHeader);
+
+        // The async client sends a body held in memory, so serialize into it once
+        SimpleHttpRequest request = requestBuilder
+                .setBody(provider.buildRequestBody(prompt, false), ContentType.APPLICATION_JSON)
+                .build();
+        logger.debug("Request prompt length: {}", prompt.length());
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<SimpleHttpResponse> exchange = transport.executeAsync(request);
+        CompletableFuture<String> generatedText = exchange
+                .thenApply(httpResponse -> {
+                    try {
+                        byte[] body = httpResponse.getBodyBytes();
+                        return extractGeneratedText(new ApiResponse(httpResponse.getCode(),
+                                body != null ? new String(body, StandardCharsets.UTF_8) : "", parseRetryAfter(httpResponse)), prompt, context, startNanos);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+        // A cancelled call (a hedge that lost) aborts its request, and its usage is never recorded
+        generatedText.whenComplete((text, error) -> {
+            if (generatedText.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return generatedText;
+    }
+
+    /**
+     * Call the provider's streaming endpoint and parse the server-sent events as they arrive
+     */
+    private String callApiStreaming(String prompt, LlmCallContext context, Consumer<String> onDelta) throws IOException {
+        logger.debug("Making streaming {} API call to: {}", provider.getName(), config.getLlmApiUrl());
+
+        HttpPost httpPost = new HttpPost(provider.buildRequestUrl(true));
+        provider.getRequestHeaders().forEach(httpPost::setHeader);
+        httpPost.setHeader("Accept", "text/event-stream");
+        httpPost.setEntity(requestEntity(prompt, true));
+
+        long startNanos = System.nanoTime();
+        return transport.execute(httpPost, httpResponse -> {
+            if (httpResponse.getCode() != 200) {
+                String responseBody = EntityUtils.toString(httpResponse.getEntity());
+                payloadLogger.logExchange(provider.getName(), context, httpResponse.getCode(), startNanos, prompt, responseBody);
+                throw apiError(httpResponse.getCode(), responseBody, parseRetryAfter(httpResponse));
+            }
+
+            StringBuilder generatedText = new StringBuilder();
+            LlmResponse usage = null;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(httpResponse.getEntity().getContent(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith(SSE_DATA_PREFIX)) {
+                        continue;
+                    }
+                    LlmResponse chunk = provider.parseStreamChunk(line.substring(SSE_DATA_PREFIX.length()).trim());
+                    if (chunk == null) {
+                        continue;
+                    }
+                    if (chunk.hasUsage()) {
+                        usage = chunk; // usage is cumulative, so the last report wins
+                    }
+                    String delta = chunk.getText();
+                    if (!delta.isEmpty()) {
+                        generatedText.append(delta);
+                        onDelta.accept(delta);
                     }
-                }
-                
-                logger.info("Content response: {}", contentResponse.toString());
-                
-                JsonNode responseParts = contentResponse.path("parts");
-                logger.info("Response parts: {}", responseParts.toString());
-                
-                if (responseParts.isArray() && responseParts.size() > 0) {
-                    String generatedText = responseParts.get(0).path("text").asText();
-                    logger.info("Generated text length: {}", generatedText.length());
-                    logger.info("Generated text: {}", generatedText);
-                    return generatedText;
-                }
-                
-                // Try alternative path
-                String alternativeText = contentResponse.path("text").asText();
-                if (!alternativeText.isEmpty()) {
-                    logger.info("Found alternative text: {}", alternativeText);
-                    return alternativeText;
                 }
             }
-            
-            logger.error("Unexpected response format from Google Gemini API: {}", responseBody);
-            throw new IOException("Unexpected response format from Google Gemini API - no candidates found");
-        } catch (ParseException e) {
-            logger.error("Failed to parse Google Gemini response entity: {}", e.getMessage());
-            throw new IOException("Failed to parse Google Gemini response entity", e);
+
+            if (usage != null) {
+                usageTracker.record(context, usage);
+            }
+            String streamedText = generatedText.toString();
+            payloadLogger.logExchange(provider.getName(), context, httpResponse.getCode(), startNanos, prompt, streamedText);
+            return streamedText;
+        });
+    }
+
+    /**
+     * Request entity that serializes the body straight into the connection when it is sent.
+     * It is repeatable, so a retry writes the body again instead of holding a copy.
+     */
+    private HttpEntity requestEntity(String prompt, boolean streaming) {
+        return new EntityTemplate(-1, ContentType.APPLICATION_JSON, null,
+                out -> provider.writeRequestBody(prompt, streaming, out));
+    }
+
+    /**
+     * Extract the generated text from an API response
+     */
+    private String extractGeneratedText(ApiResponse response, String prompt, LlmCallContext context, long startNanos)
+            throws IOException {
+        payloadLogger.logExchange(provider.getName(), context, response.code, startNanos, prompt, response.body);
+
+        if (response.code != 200) {
+            throw apiError(response.code, response.body, response.retryAfter);
         }
+
+        LlmResponse parsed = provider.parseResponse(response.body);
+        usageTracker.record(context, parsed);
+        return parsed.getText();
     }
 
+    private LlmApiException apiError(int code, String responseBody, Duration retryAfter) {
+        String truncatedBody = payloadLogger.truncate(responseBody);
+        logger.error("{} API call failed with status: {}, response: {}", provider.getName(), code, truncatedBody);
+        return new LlmApiException(provider.getName() + " API call failed with status: " + code + ", response: " + truncatedBody,
+                code, retryAfter);
+    }
 
+    /**
+     * Get the provider defining the wire format of this service's calls
+     */
+    public LlmProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Get the response cache, or null when caching is disabled
+     */
+    public LlmResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Get the rate limiter governing calls made by this service
+     */
+    public LlmRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the executor applying retries and hedging to calls made by this service
+     */
+    public LlmCallExecutor getCallExecutor() {
+        return callExecutor;
+    }
+
+    /**
+     * Get the number of calls that joined an identical call already in flight
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.get();
+    }
+
+    /**
+     * Get the prompt tokens reported by the API across all calls
+     */
+    public long getPromptTokens() {
+        return usageTracker.getTotal().getPromptTokens();
+    }
+
+    /**
+     * Get the generated tokens reported by the API across all calls
+     */
+    public long getCompletionTokens() {
+        return usageTracker.getTotal().getCompletionTokens();
+    }
+
+    /**
+     * Get the token usage reported by the API per requirement and stage
+     */
+    public LlmUsageTracker getUsageTracker() {
+        return usageTracker;
+    }
+
+    /**
+     * Get the budget that generators fit their prompt inputs into
+     */
+    public PromptBudget getPromptBudget() {
+        return promptBudget;
+    }
 
     /**
      * Check if API is configured
@@ -215,11 +613,50 @@ public class LlmService {
         }
         try {
             String testPrompt = "Generate a simple Java method that adds two integers.";
-            String response = generateTestCode(testPrompt);
+            // Bypass the cache so the probe really reaches the API, but let concurrent probes share one call
+            String response = singleFlight(cacheKey(testPrompt),
+                    () -> callExecutor.execute(provider.estimateTokens(testPrompt), () -> callApi(testPrompt, LlmCallContext.NONE)));
             return response != null && !response.isEmpty();
         } catch (Exception e) {
             logger.error("API connection test failed: {}", e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Parse a Retry-After header given either in seconds or as an HTTP date
+     */
+    private static Duration parseRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                Duration delay = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Raw API response holder
+     */
+    private static class ApiResponse {
+        final int code;
+        final String body;
+        final Duration retryAfter;
+
+        ApiResponse(int code, String body, Duration retryAfter) {
+            this.code = code;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+    }
 }
@@ -0,0 +1,345 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Embedded stand-in for the LLM API, for offline load tests and reproducible benchmarks.
+ * Speaks both the Gemini and the OpenAI chat completions formats (plain and streaming),
+ * answers with canned responses from a folder or with synthetic Java classes derived
+ * from the prompt, and delays each answer by a sample from a latency distribution.
+ * Latency and injected errors are seeded per prompt, so a run replays identically
+ * regardless of how requests interleave.
+ */
+public class LlmStubServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmStubServer.class);
+
+    private static final int STREAM_CHUNKS = 8;
+    private static final double LOGNORMAL_SIGMA = 0.5;
+    private static final Pattern CLASS_NAME = Pattern.compile("Class name:\\s*(\\w+)");
+    private static final Pattern PACKAGE_NAME = Pattern.compile("Package:\\s*([\\w.]+)");
+
+    /**
+     * Shape of the simulated response latency; every distribution has the configured mean
+     */
+    public enum LatencyDistribution {
+        FIXED,
+        UNIFORM,
+        EXPONENTIAL,
+        LOGNORMAL
+    }
+
+    private final LatencyDistribution distribution;
+    private final long meanLatencyMs;
+    private final double errorRate;
+    private final long seed;
+    private final List<String> cannedResponses;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Integer> requestsPerPrompt = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public LlmStubServer(AgentConfig config) throws IOException {
+        this.distribution = LatencyDistribution.valueOf(config.getLlmStubLatencyDistribution().trim().toUpperCase());
+        this.meanLatencyMs = config.getLlmStubLatencyMeanMs();
+        this.errorRate = config.getLlmStubErrorRate();
+        this.seed = config.getLlmStubSeed();
+        this.cannedResponses = loadCannedResponses(
+                config.getLlmStubResponsesFolder() != null ? Paths.get(config.getLlmStubResponsesFolder()) : null);
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.getLlmStubPort()), 0);
+        // Handlers sleep to simulate latency, so every in-flight request needs its own thread
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "llm-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start a stub server and point the configuration's API URL and key at it
+     */
+    public static LlmStubServer startFor(AgentConfig config) throws IOException {
+        LlmStubServer stub = new LlmStubServer(config);
+        stub.start();
+        config.setLlmApiUrl(stub.getApiUrl(LlmProvider.fromConfig(config)));
+        config.setLlmApiKey("stub");
+        return stub;
+    }
+
+    /**
+     * Run the stub standalone: LlmStubServer [--config file] [--llm-provider name] ...
+     */
+    public static void main(String[] args) throws IOException {
+        AgentConfig config = AgentConfig.fromArgs(args);
+        LlmStubServer stub = new LlmStubServer(config);
+        stub.start();
+        System.out.println("LLM stub listening on " + stub.getApiUrl(LlmProvider.fromConfig(config)));
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Started LLM stub on port {} ({} latency, mean {} ms, error rate {}, {} canned responses)",
+                getPort(), distribution, meanLatencyMs, errorRate, cannedResponses.size());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        logger.info("Stopped LLM stub after {} requests ({} injected errors)", requestCount.get(), errorCount.get());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Get the API URL a provider should be configured with to reach this stub
+     */
+    public String getApiUrl(LlmProvider provider) {
+        String base = "http://127.0.0.1:" + getPort();
+        return provider instanceof OpenAiCompatibleProvider
+                ? base + "/v1/chat/completions"
+                : base + "/v1beta/models/stub:generateContent";
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":{\"message\":\"Method not allowed\"}}");
+                return;
+            }
+            requestCount.incrementAndGet();
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readTree(body);
+            }
+            String path = exchange.getRequestURI().getPath();
+            boolean openAi = path.endsWith("/chat/completions");
+            boolean streaming = openAi ? request.path("stream").asBoolean() : path.contains(":streamGenerateContent");
+            String prompt = openAi
+                    ? request.path("messages").path(request.path("messages").size() - 1).path("content").asText()
+                    : request.path("contents").path(0).path("parts").path(0).path("text").asText();
+
+            // Seed by prompt and attempt, so a retry of the same prompt draws a fresh sample
+            String promptHash = LlmResponseCache.key("", "", prompt);
+            int attempt = requestsPerPrompt.merge(promptHash, 1, Integer::sum);
+            Random random = new Random(seed ^ promptHash.hashCode() * 31L ^ attempt);
+            long latencyMs = sampleLatency(random);
+
+            if (random.nextDouble() < errorRate) {
+                errorCount.incrementAndGet();
+                sleep(latencyMs / 10);
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"Stub overloaded\"}}");
+                return;
+            }
+
+            String text = responseFor(prompt, promptHash);
+            int promptTokens = prompt.length() / 4 + 1;
+            int completionTokens = text.length() / 4 + 1;
+            if (streaming) {
+                stream(exchange, openAi, text, promptTokens, completionTokens, latencyMs);
+            } else {
+                sleep(latencyMs);
+                send(exchange, 200, responseBody(openAi, text, promptTokens, completionTokens, false));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("LLM stub failed to handle request", e);
+        }
+    }
+
+    /**
+     * Send the text as server-sent events spread evenly over the sampled latency
+     */
+    private void stream(HttpExchange exchange, boolean openAi, String text, int promptTokens, int completionTokens,
+            long latencyMs) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int chunkSize = Math.max(1, (text.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS);
+            for (int start = 0; start < text.length(); start += chunkSize) {
+                sleep(latencyMs / STREAM_CHUNKS);
+                boolean last = start + chunkSize >= text.length();
+                String delta = text.substring(start, Math.min(text.length(), start + chunkSize));
+                // Gemini repeats usage in every chunk; OpenAI sends it once at the end
+                String chunk = responseBody(openAi, delta, promptTokens, completionTokens, true);
+                out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                if (last && openAi) {
+                    ObjectNode usage = objectMapper.createObjectNode();
+                    usage.putArray("choices");
+                    usage.set("usage", openAiUsage(promptTokens, completionTokens));
+                    out.write(("data: " + usage + "\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+            }
+        }
+    }
+
+    private String responseBody(boolean openAi, String text, int promptTokens, int completionTokens, boolean chunk) {
+        ObjectNode response = objectMapper.createObjectNode();
+        if (openAi) {
+            ObjectNode choice = response.putArray("choices").addObject();
+            choice.put("index", 0);
+            choice.putObject(chunk ? "delta" : "message").put("role", "assistant").put("content", text);
+            if (!chunk) {
+                choice.put("finish_reason", "stop");
+                response.set("usage", openAiUsage(promptTokens, completionTokens));
+            }
+        } else {
+            ObjectNode candidate = response.putArray("candidates").addObject();
+            ObjectNode content = candidate.putObject("content");
+            content.putArray("parts").addObject().put("text", text);
+            content.put("role", "model");
+            ObjectNode usage = response.putObject("usageMetadata");
+            usage.put("promptTokenCount", promptTokens);
+            usage.put("candidatesTokenCount", completionTokens);
+            usage.put("totalTokenCount", promptTokens + completionTokens);
+        }
+        return response.toString();
+    }
+
+    private ObjectNode openAiUsage(int promptTokens, int completionTokens) {
+        ObjectNode usage = objectMapper.createObjectNode();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return usage;
+    }
+
+    private long sampleLatency(Random random) {
+        switch (distribution) {
+            case UNIFORM:
+                return (long) (random.nextDouble() * 2 * meanLatencyMs);
+            case EXPONENTIAL:
+                return (long) (-Math.log(1.0 - random.nextDouble()) * meanLatencyMs);
+            case LOGNORMAL:
+                // Pick mu so the distribution's mean equals the configured mean
+                double mu = Math.log(Math.max(1, meanLatencyMs)) - LOGNORMAL_SIGMA * LOGNORMAL_SIGMA / 2;
+                return (long) Math.exp(mu + LOGNORMAL_SIGMA * random.nextGaussian());
+            case FIXED:
+            default:
+                return meanLatencyMs;
+        }
+    }
+
+    /**
+     * Pick the response for a prompt: a canned file chosen by prompt hash, or a synthetic
+     * class built from the prompt when no canned responses are configured
+     */
+    private String responseFor(String prompt, String promptHash) {
+        if (!cannedResponses.isEmpty()) {
+            return cannedResponses.get(Math.floorMod(promptHash.hashCode(), cannedResponses.size()));
+        }
+        return syntheticResponse(prompt, promptHash);
+    }
+
+    private static String syntheticResponse(String prompt, String promptHash) {
+        Matcher className = CLASS_NAME.matcher(prompt);
+        if (!className.find()) {
+            return "Stub suggestion " + promptHash.substring(0, 8) + ": keep methods small and validate inputs.";
+        }
+        Matcher packageName = PACKAGE_NAME.matcher(prompt);
+        String packageDeclaration = "";
+        boolean testClass = className.group(1).startsWith("Test");
+        if (packageName.find()) {
+            packageDeclaration = "package " + packageName.group(1) + ";\n\n";
+            testClass |= packageName.group(1).endsWith("tests");
+        }
+        if (testClass) {
+            return packageDeclaration
+                    + "import org.junit.jupiter.api.Test;\n"
+                    + "import static org.junit.jupiter.api.Assertions.*;\n\n"
+                    + "public class " + className.group(1) + " {\n\n"
+                    + "    @Test\n"
+                    + "    void stubGeneratedTest() {\n"
+                    + "        // stub " + promptHash.substring(0, 8) + "\n"
+                    + "        assertEquals(2, 1 + 1);\n"
+                    + "    }\n"
+                    + "}\n";
+        }
+        return packageDeclaration
+                + "public class " + className.group(1) + " {\n\n"
+                + "    // stub " + promptHash.substring(0, 8) + "\n"
+                + "    public String process(String input) {\n"
+                + "        if (input == null) {\n"
+                + "            throw new IllegalArgumentException(\"input must not be null\");\n"
+                + "        }\n"
+                + "        return input.trim();\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static List<String> loadCannedResponses(Path folder) throws IOException {
+        List<String> responses = new ArrayList<>();
+        if (folder == null || !Files.isDirectory(folder)) {
+            return responses;
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                responses.add(Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+        return responses;
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package demoproject.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the token usage reported by the LLM API per requirement and per stage
+ */
+public class LlmUsageTracker {
+
+    private final Map<String, Map<LlmCallContext.Stage, Usage>> usageByRequirement = new ConcurrentHashMap<>();
+
+    /**
+     * Record the usage of one completed call
+     */
+    public void record(LlmCallContext context, LlmResponse response) {
+        usageByRequirement
+                .computeIfAbsent(context.getRequirementId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(context.getStage(), stage -> new Usage())
+                .add(response.getPromptTokens(), response.getCompletionTokens());
+    }
+
+    /**
+     * Get the usage summed over every requirement and stage
+     */
+    public Usage getTotal() {
+        Usage total = new Usage();
+        usageByRequirement.values().forEach(stages -> stages.values().forEach(total::add));
+        return total;
+    }
+
+    /**
+     * Get the usage of one requirement summed over its stages
+     */
+    public Usage getRequirementTotal(String requirementId) {
+        Usage total = new Usage();
+        usageByRequirement.getOrDefault(requirementId, Map.of()).values().forEach(total::add);
+        return total;
+    }
+
+    /**
+     * Get the usage of every requirement, per stage
+     */
+    public Map<LlmCallContext.Stage, Usage> getStageTotals() {
+        Map<LlmCallContext.Stage, Usage> totals = new EnumMap<>(LlmCallContext.Stage.class);
+        usageByRequirement.values().forEach(stages -> stages.forEach(
+                (stage, usage) -> totals.computeIfAbsent(stage, s -> new Usage()).add(usage)));
+        return totals;
+    }
+
+    /**
+     * Get a multi-line report of usage per stage and per requirement
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        Usage total = getTotal();
+        summary.append(String.format("LLM token usage: %d calls, %d prompt + %d completion = %d tokens%n",
+                total.getCalls(), total.getPromptTokens(), total.getCompletionTokens(), total.getTotalTokens()));
+        getStageTotals().forEach((stage, usage) -> summary.append(String.format("  %-15s %s%n", stage.getDisplayName(), usage)));
+        new TreeMap<>(usageByRequirement).keySet().stream()
+                .filter(requirementId -> !requirementId.equals(LlmCallContext.NONE.getRequirementId()))
+                .forEach(requirementId -> summary.append(String.format("  %-15s %s%n", requirementId, getRequirementTotal(requirementId))));
+        return summary.toString().stripTrailing();
+    }
+
+    /**
+     * Call count and token totals
+     */
+    public static class Usage {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong promptTokens = new AtomicLong();
+        private final AtomicLong completionTokens = new AtomicLong();
+
+        void add(long prompt, long completion) {
+            calls.incrementAndGet();
+            promptTokens.addAndGet(prompt);
+            completionTokens.addAndGet(completion);
+        }
+
+        void add(Usage other) {
+            calls.addAndGet(other.getCalls());
+            promptTokens.addAndGet(other.getPromptTokens());
+            completionTokens.addAndGet(other.getCompletionTokens());
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getPromptTokens() {
+            return promptTokens.get();
+        }
+
+        public long getCompletionTokens() {
+            return completionTokens.get();
+        }
+
+        public long getTotalTokens() {
+            return getPromptTokens() + getCompletionTokens();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d calls, %d prompt + %d completion tokens", getCalls(), getPromptTokens(), getCompletionTokens());
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package demoproject.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.config.AgentConfig;
+import demoproject.models.TestCaseResult;
+
+/**
+ * Runs the tests of many requirement projects in one Maven reactor build. Each build writes an
+ * aggregator POM listing the projects as modules and builds them in parallel (-T), so a single
+ * Maven JVM, or a warm mvnd daemon, handles a whole batch instead of one cold Maven per
+ * requirement. Projects submitted while a build is running are batched into the next build.
+ */
+public class MavenReactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MavenReactor.class);
+
+    private static final String AGGREGATOR_POM = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <project xmlns="http://maven.apache.org/POM/4.0.0" xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+              xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd">
+              <modelVersion>4.0.0</modelVersion>
+
+              <groupId>generated</groupId>
+              <artifactId>reactor-%d</artifactId>
+              <version>1.0</version>
+              <packaging>pom</packaging>
+
+              <modules>
+            %s  </modules>
+            </project>
+            """;
+
+    /** Maven's message when offline mode needs an artifact the local repository does not have */
+    private static final String OFFLINE_MISS = "in offline mode";
+    /** Lines of the build log kept from its start and from its end; the rest are only counted */
+    private static final int LOG_HEAD_LINES = 50;
+    private static final int LOG_TAIL_LINES = 200;
+    /** Error lines kept per project */
+    private static final int MAX_MODULE_ERRORS = 100;
+    /** Time a reactor build may take besides running tests */
+    private static final long BUILD_OVERHEAD_MS = 120_000;
+    /** How often a running build is checked for test JVMs past the run timeout */
+    private static final long WATCHDOG_INTERVAL_MS = 500;
+
+    private final Path reactorFolder;
+    private final String executable;
+    private final int threads;
+    private final String localRepository;
+    private final long testTimeoutMs;
+    private final long runTimeoutMs;
+    private final int maxHeapMb;
+    private final ExecutorService outputReaders;
+    private final AtomicInteger buildCount = new AtomicInteger();
+    private final SurefireReportParser reportParser = new SurefireReportParser();
+    private final boolean offline;
+
+    private final Object queueLock = new Object();
+    private Map<Path, CompletableFuture<ModuleResult>> queued = new LinkedHashMap<>();
+    private boolean building;
+
+    public MavenReactor(AgentConfig config, ExecutorService outputReaders) {
+        this.reactorFolder = Paths.get(config.getOutputFolder(), ".reactor").toAbsolutePath();
+        this.executable = resolveExecutable(config.getMavenExecutable());
+        this.threads = config.getBuildMaxConcurrency();
+        this.localRepository = config.getMavenRepoLocal();
+        this.offline = config.isMavenOffline();
+        this.testTimeoutMs = config.getTestTimeoutMs();
+        this.runTimeoutMs = config.getTestRunTimeoutMs();
+        this.maxHeapMb = config.getTestMaxHeapMb();
+        this.outputReaders = outputReaders;
+        logger.debug("Maven reactor builds use {} with {} threads, offline {}", executable, threads, offline);
+    }
+
+    /**
+     * Pick the Maven launcher: "auto" prefers mvnd when it is on the PATH, otherwise mvn
+     */
+    private static String resolveExecutable(String configured) {
+        boolean windows = System.getProperty("os.name").toLowerCase().contains("windows");
+        if (configured != null && !configured.isBlank() && !"auto".equalsIgnoreCase(configured)) {
+            return configured;
+        }
+        String mvnd = windows ? "mvnd.cmd" : "mvnd";
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                if (!directory.isBlank() && Files.isExecutable(Paths.get(directory, mvnd))) {
+                    return mvnd;
+                }
+            }
+        }
+        return windows ? "mvn.cmd" : "mvn";
+    }
+
+    /**
+     * Queue a project for the next reactor build. If no build is running one starts right away;
+     * otherwise the project joins every other project submitted until the running build ends.
+     */
+    public CompletableFuture<ModuleResult> submit(Path projectRoot) {
+        synchronized (queueLock) {
+            CompletableFuture<ModuleResult> future = queued.computeIfAbsent(projectRoot, root -> new CompletableFuture<>());
+            if (!building) {
+                building = true;
+                outputReaders.execute(this::buildQueued);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Build batches of queued projects until the queue is empty
+     */
+    private void buildQueued() {
+        while (true) {
+            Map<Path, CompletableFuture<ModuleResult>> batch;
+            synchronized (queueLock) {
+                if (queued.isEmpty()) {
+                    building = false;
+                    return;
+                }
+                batch = queued;
+                queued = new LinkedHashMap<>();
+            }
+            try {
+                Map<Path, ModuleResult> results = build(batch.keySet());
+                batch.forEach((root, future) -> future.complete(results.get(root)));
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    /**
+     * Run the tests of the given projects in one reactor build
+     *
+     * @return the outcome of each project, keyed by the given project roots
+     */
+    public Map<Path, ModuleResult> build(Collection<Path> projectRoots) throws IOException, InterruptedException {
+        Map<Path, Path> modules = new LinkedHashMap<>();
+        for (Path projectRoot : projectRoots) {
+            Path module = projectRoot.toAbsolutePath().normalize();
+            modules.put(projectRoot, module);
+            // Reports left by an earlier build would be read as this build's results
+            deleteRecursively(module.resolve("target/surefire-reports"));
+        }
+
+        int buildNumber = buildCount.incrementAndGet();
+        Files.createDirectories(reactorFolder);
+        Path pom = reactorFolder.resolve("pom-" + buildNumber + ".xml");
+        String moduleList = modules.values().stream()
+                .distinct()
+                .map(module -> "    <module>" + reactorFolder.relativize(module).toString().replace('\\', '/') + "</module>\n")
+                .collect(Collectors.joining());
+        Files.writeString(pom, AGGREGATOR_POM.formatted(buildNumber, moduleList));
+
+        try {
+            // Projects are tested in waves of -T modules, each allowed the run timeout, on top of
+            // the time for starting Maven, resolving plugins and compiling
+            long waves = (modules.size() + threads - 1) / threads;
+            long deadlineMs = runTimeoutMs > 0 ? runTimeoutMs * waves + BUILD_OVERHEAD_MS : 0;
+            long startedAt = System.nanoTime();
+            BuildOutput output = runMaven(pom, offline, deadlineMs, modules.values());
+            if (offline && output.exitCode != 0 && output.offlineMiss) {
+                // The local repository lacks a plugin or dependency: fetch it once, then stay offline
+                logger.info("Local Maven repository is missing artifacts, building online to seed it");
+                output = runMaven(pom, false, deadlineMs, modules.values());
+            }
+            if (output.timedOut) {
+                logger.warn("Reactor build {} did not finish within {} ms and was stopped", buildNumber, deadlineMs);
+            }
+            logger.info("Reactor build {} of {} projects finished in {} ms (exit code {})", buildNumber,
+                    modules.size(), (System.nanoTime() - startedAt) / 1_000_000, output.exitCode);
+
+            Map<Path, ModuleResult> results = new LinkedHashMap<>();
+            for (Map.Entry<Path, Path> entry : modules.entrySet()) {
+                results.put(entry.getKey(), moduleResult(entry.getValue(), output));
+            }
+            return results;
+        } finally {
+            Files.deleteIfExists(pom);
+        }
+    }
+
+    /**
+     * Run Maven on the aggregator POM and capture its output. A project's test JVM that runs
+     * past the run timeout is killed, and the whole build with every process it started is
+     * stopped once the deadline passes.
+     *
+     * @param deadlineMs time the whole build may take, or 0 for no limit
+     */
+    private BuildOutput runMaven(Path pom, boolean offlineBuild, long deadlineMs, Collection<Path> modules)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(executable, "-f", pom.toString(), "-B", "-q",
+                "-T", String.valueOf(threads),
+                // Keep building the other modules when one fails, and report failed tests instead of failing the module
+                "-fae", "-Dmaven.test.failure.ignore=true", "-DtrimStackTrace=true",
+                "-DargLine=" + testJvmArguments()));
+        if (offlineBuild) {
+            command.add("-o");
+        }
+        if (localRepository != null && !localRepository.isBlank()) {
+            command.add("-Dmaven.repo.local=" + localRepository);
+        }
+        command.add("test");
+
+        logger.debug("Running Maven reactor command: {}", String.join(" ", command));
+        Process process = new ProcessBuilder(command)
+                .directory(reactorFolder.toFile())
+                .redirectErrorStream(true)
+                .start();
+        try {
+            // Drain the output on a reader that never waits behind queued test runs, picking out
+            // each project's error lines as they arrive and keeping only the ends of the log
+            OutputScanner scanner = new OutputScanner(modules);
+            CompletableFuture<Void> drained = CompletableFuture.runAsync(() -> {
+                try {
+                    scanner.log.consume(process.getInputStream(), scanner::scan);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, outputReaders);
+            Set<Path> stoppedModules = new HashSet<>();
+            boolean timedOut = false;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+            while (!process.waitFor(WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (runTimeoutMs > 0) {
+                    stopOverdueTestJvms(process, modules, stoppedModules);
+                }
+                if (deadlineMs > 0 && System.nanoTime() - deadline > 0) {
+                    timedOut = true;
+                    destroyProcessTree(process);
+                    break;
+                }
+            }
+            int exitCode = process.waitFor();
+            drained.join();
+            return new BuildOutput(exitCode, scanner.offlineMiss, scanner.errors, scanner.log.getText(),
+                    timedOut, stoppedModules);
+        } finally {
+            if (process.isAlive()) {
+                destroyProcessTree(process);
+            }
+        }
+    }
+
+    /**
+     * Arguments of each project's forked test JVM: the heap cap, and the per-test timeout that
+     * Jupiter reads from system properties
+     */
+    private String testJvmArguments() {
+        StringBuilder arguments = new StringBuilder("-Xmx" + maxHeapMb + "m");
+        if (testTimeoutMs > 0) {
+            arguments.append(" -Djunit.jupiter.execution.timeout.default=").append(testTimeoutMs).append("ms")
+                    .append(" -Djunit.jupiter.execution.timeout.thread.mode.default=SEPARATE_THREAD");
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * Kill every Surefire test JVM of the build that started longer than the run timeout ago.
+     * Surefire's own fork timeout does not reliably stop a JVM stuck in a busy loop, so the
+     * forks are found by the project folder on their command line.
+     */
+    private void stopOverdueTestJvms(Process process, Collection<Path> modules, Set<Path> stoppedModules) {
+        Instant cutoff = Instant.now().minusMillis(runTimeoutMs);
+        process.descendants().forEach(handle -> {
+            String commandLine = handle.info().commandLine().orElse("");
+            boolean overdue = handle.info().startInstant().map(start -> start.isBefore(cutoff)).orElse(false);
+            if (!overdue || !commandLine.contains("surefirebooter")) {
+                return;
+            }
+            for (Path module : modules) {
+                if (commandLine.contains(module.resolve("target").resolve("surefire").toString())) {
+                    stoppedModules.add(module);
+                    logger.warn("Tests of {} did not finish within {} ms, killing their JVM", module.getFileName(), runTimeoutMs);
+                }
+            }
+            handle.descendants().forEach(ProcessHandle::destroyForcibly);
+            handle.destroyForcibly();
+        });
+    }
+
+    /**
+     * Kill a process and everything it started, children first so none is left orphaned
+     */
+    private static void destroyProcessTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Collect one module's test cases from its Surefire reports and the reactor's error lines that concern it
+     */
+    private ModuleResult moduleResult(Path module, BuildOutput output) throws IOException {
+        List<TestCaseResult> testCases = reportParser.parseFolder(module.resolve("target/surefire-reports"));
+        Set<String> errors = output.errors.getOrDefault(module, Set.of());
+        // A project timed out if its test JVM was killed, or the build was stopped before it was tested
+        boolean timedOut = output.stoppedModules.contains(module) || (output.timedOut && testCases.isEmpty());
+        return new ModuleResult(output.exitCode, testCases, new ArrayList<>(errors), output.log, timedOut);
+    }
+
+    private static void deleteRecursively(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Outcome of one project in a reactor build: the build's exit code, the project's test
+     * cases as Surefire reported them, Maven's error lines that name the project or its files, the start and end
+     * of the build log, and whether its tests were stopped by a timeout
+     */
+    public static class ModuleResult {
+        private final int buildExitCode;
+        private final List<TestCaseResult> testCases;
+        private final List<String> errors;
+        private final String buildLog;
+        private final boolean timedOut;
+
+        ModuleResult(int buildExitCode, List<TestCaseResult> testCases, List<String> errors, String buildLog,
+                boolean timedOut) {
+            this.buildExitCode = buildExitCode;
+            this.testCases = testCases;
+            this.errors = errors;
+            this.buildLog = buildLog;
+            this.timedOut = timedOut;
+        }
+
+        public int getBuildExitCode() { return buildExitCode; }
+        public List<TestCaseResult> getTestCases() { return testCases; }
+        public List<String> getErrors() { return errors; }
+        public String getBuildLog() { return buildLog; }
+        public boolean isTimedOut() { return timedOut; }
+    }
+
+    /**
+     * Reads a build's output line by line: notes whether an offline build missed artifacts and
+     * files each [ERROR] line under the projects whose folder or name it mentions
+     */
+    private static class OutputScanner {
+        private final OutputCapture log = new OutputCapture(LOG_HEAD_LINES, LOG_TAIL_LINES);
+        private final Map<Path, String> modulePaths = new LinkedHashMap<>();
+        private final Map<Path, String> projectMarkers = new LinkedHashMap<>();
+        private final Map<Path, Set<String>> errors = new ConcurrentHashMap<>();
+        private volatile boolean offlineMiss;
+
+        OutputScanner(Collection<Path> modules) {
+            for (Path module : modules) {
+                modulePaths.put(module, module.toString() + File.separator);
+                projectMarkers.put(module, "on project " + module.getFileName() + ":");
+            }
+        }
+
+        void scan(String line) {
+            if (line.contains(OFFLINE_MISS)) {
+                offlineMiss = true;
+            }
+            if (!line.startsWith("[ERROR]")) {
+                return;
+            }
+            for (Path module : modulePaths.keySet()) {
+                if (line.contains(modulePaths.get(module)) || line.contains(projectMarkers.get(module))) {
+                    Set<String> moduleErrors = errors.computeIfAbsent(module, key -> new LinkedHashSet<>());
+                    if (moduleErrors.size() < MAX_MODULE_ERRORS) {
+                        moduleErrors.add(line.trim());
+                    }
+                }
+            }
+        }
+    }
+
+    private record BuildOutput(int exitCode, boolean offlineMiss, Map<Path, Set<String>> errors, String log,
+            boolean timedOut, Set<Path> stoppedModules) {
+    }
+}
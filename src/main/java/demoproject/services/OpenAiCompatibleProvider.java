@@ -0,0 +1,133 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * OpenAI chat completions wire format, also spoken by most self-hosted and proxy
+ * gateways. The API URL is the full chat completions endpoint.
+ */
+public class OpenAiCompatibleProvider implements LlmProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiCompatibleProvider.class);
+    private static final String STREAM_DONE = "[DONE]";
+
+    private final AgentConfig config;
+    private final ObjectMapper objectMapper;
+    private final JsonRequestTemplate requestTemplate;
+    private final JsonRequestTemplate streamingRequestTemplate;
+
+    public OpenAiCompatibleProvider(AgentConfig config) {
+        this.config = config;
+        this.objectMapper = new ObjectMapper();
+        this.requestTemplate = buildRequestTemplate(false);
+        this.streamingRequestTemplate = buildRequestTemplate(true);
+    }
+
+    @Override
+    public String getName() {
+        return "OpenAI-compatible";
+    }
+
+    @Override
+    public String buildRequestUrl(boolean streaming) {
+        return config.getLlmApiUrl();
+    }
+
+    @Override
+    public Map<String, String> getRequestHeaders() {
+        return Map.of("Authorization", "Bearer " + config.getLlmApiKey());
+    }
+
+    /**
+     * Write the request body according to the chat completions format
+     */
+    @Override
+    public void writeRequestBody(String prompt, boolean streaming, OutputStream out) throws IOException {
+        (streaming ? streamingRequestTemplate : requestTemplate).writeTo(prompt, out);
+    }
+
+    /**
+     * Serialize the request envelope once, leaving a slot for the prompt text
+     */
+    private JsonRequestTemplate buildRequestTemplate(boolean streaming) {
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("model", config.getLlmModel());
+
+        ArrayNode messages = requestBody.putArray("messages");
+        ObjectNode message = messages.addObject();
+        message.put("role", "user");
+        message.put("content", JsonRequestTemplate.slot());
+
+        requestBody.put("temperature", 0.2);
+        requestBody.put("top_p", 0.8);
+        requestBody.put("max_tokens", config.getLlmMaxOutputTokens());
+        requestBody.put("n", 1);
+        if (streaming) {
+            requestBody.put("stream", true);
+            // Ask for a final chunk with the usage so streamed calls can be accounted too
+            requestBody.putObject("stream_options").put("include_usage", true);
+        }
+        return JsonRequestTemplate.of(requestBody);
+    }
+
+    @Override
+    public String getRequestParameters() {
+        return "temperature=0.2,top_p=0.8,max_tokens=" + config.getLlmMaxOutputTokens() + ",n=1";
+    }
+
+    @Override
+    public LlmResponse parseResponse(String responseBody) throws IOException {
+        JsonNode jsonResponse = objectMapper.readTree(responseBody);
+        checkError(jsonResponse);
+
+        JsonNode choices = jsonResponse.path("choices");
+        if (!choices.isArray() || choices.size() == 0) {
+            logger.error("Unexpected response format from OpenAI-compatible API: {}", responseBody);
+            throw new IOException("Unexpected response format from OpenAI-compatible API - no choices found");
+        }
+
+        String generatedText = choices.get(0).path("message").path("content").asText();
+        logger.debug("Generated text length: {}", generatedText.length());
+        return withUsage(generatedText, jsonResponse);
+    }
+
+    @Override
+    public LlmResponse parseStreamChunk(String data) throws IOException {
+        if (STREAM_DONE.equals(data)) {
+            return null;
+        }
+        JsonNode chunk = objectMapper.readTree(data);
+        checkError(chunk);
+
+        JsonNode choices = chunk.path("choices");
+        String delta = choices.isArray() && choices.size() > 0
+                ? choices.get(0).path("delta").path("content").asText("")
+                : "";
+        return withUsage(delta, chunk);
+    }
+
+    private LlmResponse withUsage(String text, JsonNode response) {
+        JsonNode usage = response.path("usage");
+        return new LlmResponse(text, usage.path("prompt_tokens").asInt(), usage.path("completion_tokens").asInt());
+    }
+
+    private static void checkError(JsonNode response) throws IOException {
+        if (response.hasNonNull("error")) {
+            String errorMessage = response.get("error").path("message").asText("Unknown error");
+            logger.error("OpenAI-compatible API returned error: {}", errorMessage);
+            throw new IOException("OpenAI-compatible API error: " + errorMessage);
+        }
+    }
+}
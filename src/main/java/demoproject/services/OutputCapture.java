@@ -0,0 +1,107 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bounded capture of a child process's output. The first and the last lines are kept and the
+ * lines in between are only counted, and overlong lines are cut, so a test that prints without
+ * end cannot exhaust the agent's heap. Every line is also handed to a listener as it is read,
+ * so callers pick out what they need while the process runs.
+ */
+public class OutputCapture {
+
+    /** Longest line kept or passed on, in characters */
+    static final int MAX_LINE_LENGTH = 2000;
+
+    private final int headLines;
+    private final int tailLines;
+    private final List<String> head = new ArrayList<>();
+    private final Deque<String> tail = new ArrayDeque<>();
+    private long totalLines;
+
+    public OutputCapture(int headLines, int tailLines) {
+        this.headLines = headLines;
+        this.tailLines = tailLines;
+    }
+
+    /**
+     * Read a stream to its end, one line at a time
+     */
+    public void consume(InputStream stream, Consumer<String> listener) throws IOException {
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            StringBuilder line = new StringBuilder();
+            boolean truncated = false;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n') {
+                        accept(line, truncated, listener);
+                        line.setLength(0);
+                        truncated = false;
+                    } else if (c == '\r') {
+                        continue;
+                    } else if (line.length() < MAX_LINE_LENGTH) {
+                        line.append(c);
+                    } else {
+                        truncated = true;
+                    }
+                }
+            }
+            if (line.length() > 0) {
+                accept(line, truncated, listener);
+            }
+        }
+    }
+
+    private void accept(StringBuilder line, boolean truncated, Consumer<String> listener) {
+        String text = truncated ? line + "..." : line.toString();
+        add(text);
+        listener.accept(text);
+    }
+
+    /**
+     * Keep a line if it is among the first or, so far, the last lines
+     */
+    public synchronized void add(String line) {
+        totalLines++;
+        if (head.size() < headLines) {
+            head.add(line);
+            return;
+        }
+        if (tailLines > 0) {
+            if (tail.size() == tailLines) {
+                tail.removeFirst();
+            }
+            tail.addLast(line);
+        }
+    }
+
+    public synchronized long getTotalLines() {
+        return totalLines;
+    }
+
+    /**
+     * Get the kept lines, with a marker in place of the lines that were dropped
+     */
+    public synchronized String getText() {
+        StringBuilder text = new StringBuilder();
+        head.forEach(line -> text.append(line).append('\n'));
+        long dropped = totalLines - head.size() - tail.size();
+        if (dropped > 0) {
+            text.append("... ").append(dropped).append(" lines omitted ...\n");
+        }
+        tail.forEach(line -> text.append(line).append('\n'));
+        return text.toString();
+    }
+}
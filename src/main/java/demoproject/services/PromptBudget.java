@@ -0,0 +1,123 @@
+package demoproject.services;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps prompts within a token budget by shrinking their variable inputs.
+ * Java sources are first reduced to an outline (declarations and signatures, method
+ * bodies elided); anything still too large is cut in the middle, keeping its head and tail.
+ */
+public class PromptBudget {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String ELIDED_BODY = "// ... body omitted";
+
+    private final int maxPromptTokens;
+    private final ToIntFunction<String> tokenEstimator;
+
+    /**
+     * @param maxPromptTokens budget for a whole prompt, or 0 for unlimited
+     * @param tokenEstimator  estimate of the tokens in a text
+     */
+    public PromptBudget(int maxPromptTokens, ToIntFunction<String> tokenEstimator) {
+        this.maxPromptTokens = maxPromptTokens;
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    /**
+     * Check if an input fits next to the fixed part of a prompt without shrinking
+     */
+    public boolean fits(String input, String fixedPart) {
+        return maxPromptTokens <= 0 || input == null
+                || tokenEstimator.applyAsInt(input) <= allowance(fixedPart, 1);
+    }
+
+    /**
+     * Fit one variable input into what the fixed part of the prompt leaves of the budget
+     */
+    public String fit(String input, String fixedPart) {
+        return fit(input, fixedPart, 1);
+    }
+
+    /**
+     * Fit one of several variable inputs that share what the fixed part leaves of the budget
+     */
+    public String fit(String input, String fixedPart, int inputCount) {
+        if (maxPromptTokens <= 0 || input == null) {
+            return input;
+        }
+        int allowance = allowance(fixedPart, inputCount);
+        if (tokenEstimator.applyAsInt(input) <= allowance) {
+            return input;
+        }
+
+        String outline = looksLikeJava(input) ? outline(input) : input;
+        if (tokenEstimator.applyAsInt(outline) <= allowance) {
+            return outline;
+        }
+        return truncate(outline, allowance * CHARS_PER_TOKEN);
+    }
+
+    private int allowance(String fixedPart, int inputCount) {
+        int remaining = maxPromptTokens - tokenEstimator.applyAsInt(fixedPart);
+        return Math.max(1, remaining / Math.max(1, inputCount));
+    }
+
+    public int getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+
+    private static boolean looksLikeJava(String text) {
+        return text.contains("class ") && text.contains("{");
+    }
+
+    /**
+     * Keep lines that start at class level or shallower and elide deeper blocks
+     */
+    static String outline(String source) {
+        StringBuilder outline = new StringBuilder();
+        int depth = 0;
+        boolean elided = false;
+        for (String line : source.split("\n", -1)) {
+            int depthAtStart = depth;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+            }
+            // Keep the closing brace of a body, which starts inside it but ends at class level
+            if (depthAtStart >= 2 && depth >= 2) {
+                if (!elided) {
+                    outline.append(" ".repeat(leadingSpaces(line))).append(ELIDED_BODY).append('\n');
+                    elided = true;
+                }
+                continue;
+            }
+            elided = false;
+            outline.append(line).append('\n');
+        }
+        return outline.toString();
+    }
+
+    private static int leadingSpaces(String line) {
+        int count = 0;
+        while (count < line.length() && line.charAt(count) == ' ') {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Keep the head and tail of a text within the given length
+     */
+    private static String truncate(String text, int maxChars) {
+        String marker = "\n... [" + (text.length() - maxChars) + " characters omitted to fit the prompt budget] ...\n";
+        int keep = Math.max(0, maxChars - marker.length());
+        int head = keep * 2 / 3;
+        int tail = keep - head;
+        return text.substring(0, head) + marker + text.substring(text.length() - tail);
+    }
+}
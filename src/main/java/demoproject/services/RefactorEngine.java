@@ -22,8 +22,12 @@ public class RefactorEngine {
     private final LlmService llmService;
 
     public RefactorEngine(AgentConfig config) {
+        this(config, new LlmService(config));
+    }
+
+    public RefactorEngine(AgentConfig config, LlmService llmService) {
         this.config = config;
-        this.llmService = new LlmService(config);
+        this.llmService = llmService;
     }
 
     /**
@@ -173,8 +177,10 @@ public class RefactorEngine {
             prompt.append("- ").append(issue).append("\n");
         }
         
+        // Suggestions only need the shape of the code, so an outline is enough when it is large
         prompt.append("\nCurrent code:\n");
-        prompt.append(productionCode.getCode()).append("\n\n");
+        prompt.append(llmService.getPromptBudget().fit(productionCode.getCode(),
+                String.join("\n", qualityReport.getIssues()))).append("\n\n");
         prompt.append("Requirements for refactoring:\n");
         prompt.append("- Maintain the same functionality\n");
         prompt.append("- Improve code quality and readability\n");
@@ -185,7 +191,8 @@ public class RefactorEngine {
         prompt.append("Generate only the refactored code without any explanations.");
 
         try {
-            String refactoredCode = llmService.generateCode(prompt.toString());
+            String refactoredCode = llmService.generateCode(prompt.toString(),
+                    LlmCallContext.of(productionCode.getRequirementId(), LlmCallContext.Stage.REFACTORING));
             return List.of("Code refactored to address quality issues");
         } catch (Exception e) {
             logger.error("Failed to generate refactoring suggestions", e);
@@ -197,6 +204,12 @@ public class RefactorEngine {
      * Apply refactoring to the code
      */
     private String applyRefactoring(ProductionCode productionCode, List<String> suggestions) {
+        // The model rewrites the code it is shown, so a condensed copy would lose code
+        if (!llmService.getPromptBudget().fits(productionCode.getCode(), String.join("\n", suggestions))) {
+            logger.warn("Skipping refactoring of {}: code exceeds the prompt budget", productionCode.getClassName());
+            return productionCode.getCode();
+        }
+
         StringBuilder prompt = new StringBuilder();
         prompt.append("Refactor the following code to address these issues:\n\n");
         
@@ -209,7 +222,8 @@ public class RefactorEngine {
         prompt.append("Generate the refactored code that addresses all the issues while maintaining functionality.");
 
         try {
-            return llmService.generateCode(prompt.toString());
+            return llmService.generateCode(prompt.toString(),
+                    LlmCallContext.of(productionCode.getRequirementId(), LlmCallContext.Stage.REFACTORING));
         } catch (Exception e) {
             logger.error("Failed to apply refactoring", e);
             return productionCode.getCode(); // Return original code if refactoring fails
@@ -0,0 +1,89 @@
+package demoproject.services;
+
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Process-wide concurrency caps per external resource. With virtual threads the thread
+ * count no longer bounds how much work hits a resource at once, so each resource is
+ * guarded by its own semaphore instead. LLM calls are capped by {@link LlmRateLimiter}.
+ */
+public class ResourceLimits {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceLimits.class);
+
+    /**
+     * Resources guarded by a semaphore
+     */
+    public enum Resource {
+        BUILD,
+        DISK
+    }
+
+    private static ResourceLimits shared;
+
+    private final Map<Resource, Semaphore> permits = new EnumMap<>(Resource.class);
+
+    public ResourceLimits(AgentConfig config) {
+        permits.put(Resource.BUILD, new Semaphore(config.getBuildMaxConcurrency(), true));
+        permits.put(Resource.DISK, new Semaphore(config.getDiskMaxConcurrency(), true));
+    }
+
+    /**
+     * Get the limits shared by every service in the process, creating them on first use
+     */
+    public static synchronized ResourceLimits shared(AgentConfig config) {
+        if (shared == null) {
+            shared = new ResourceLimits(config);
+        }
+        return shared;
+    }
+
+    /**
+     * Wait for a permit on a resource; close the returned permit to release it
+     */
+    public Permit acquire(Resource resource) throws InterruptedException {
+        Semaphore semaphore = permits.get(resource);
+        // The timed tryAcquire honours the semaphore's fairness, so a newcomer never overtakes queued waiters
+        if (!semaphore.tryAcquire(0, TimeUnit.SECONDS)) {
+            logger.debug("Waiting for a {} permit ({} queued)", resource, semaphore.getQueueLength());
+            semaphore.acquire();
+        }
+        return semaphore::release;
+    }
+
+    /**
+     * Wait for a permit from I/O code, reporting an interrupt as an {@link InterruptedIOException}
+     */
+    public Permit acquireForIo(Resource resource) throws InterruptedIOException {
+        try {
+            return acquire(resource);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a " + resource + " permit");
+        }
+    }
+
+    /**
+     * Get the number of permits currently free on a resource
+     */
+    public int getAvailablePermits(Resource resource) {
+        return permits.get(resource).availablePermits();
+    }
+
+    /**
+     * Held permit on a resource
+     */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,191 @@
+package demoproject.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.models.TestCaseResult;
+
+/**
+ * Reads Surefire's TEST-*.xml reports into one record per test case.
+ * The reports are streamed with StAX, so the captured output of a chatty test is skipped
+ * over rather than loaded, and stack traces are cut to a fixed length.
+ */
+public class SurefireReportParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurefireReportParser.class);
+
+    /** Longest stack trace kept per failed test, in characters */
+    private static final int MAX_STACK_TRACE_LENGTH = 4000;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Reports never need a DTD or external entities, so never resolve them
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * Parse every XML report in a Surefire reports folder, in file name order
+     *
+     * @return the test cases, or an empty list if the folder does not exist
+     */
+    public List<TestCaseResult> parseFolder(Path reportsFolder) throws IOException {
+        List<TestCaseResult> testCases = new ArrayList<>();
+        if (!Files.isDirectory(reportsFolder)) {
+            return testCases;
+        }
+        List<Path> reports;
+        try (Stream<Path> files = Files.list(reportsFolder)) {
+            reports = files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith("TEST-") && name.endsWith(".xml");
+                    })
+                    .sorted()
+                    .toList();
+        }
+        for (Path report : reports) {
+            testCases.addAll(parse(report));
+        }
+        return testCases;
+    }
+
+    /**
+     * Parse one XML report
+     */
+    public List<TestCaseResult> parse(Path report) throws IOException {
+        List<TestCaseResult> testCases = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(report)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                readTestCases(reader, testCases);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // A fork killed while writing leaves a truncated report; keep the test cases read so far
+            logger.warn("Surefire report is incomplete, keeping {} test cases: {} ({})",
+                    testCases.size(), report, e.getMessage());
+        }
+        return testCases;
+    }
+
+    private static void readTestCases(XMLStreamReader reader, List<TestCaseResult> testCases) throws XMLStreamException {
+        TestCaseResult current = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "testcase" -> {
+                        current = new TestCaseResult(reader.getAttributeValue(null, "classname"),
+                                reader.getAttributeValue(null, "name"),
+                                parseTimeMs(reader.getAttributeValue(null, "time")));
+                        testCases.add(current);
+                    }
+                    case "failure", "error", "rerunFailure", "rerunError", "flakyFailure", "flakyError" -> {
+                        if (current != null) {
+                            readFailure(reader, current);
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                    case "skipped" -> {
+                        if (current != null) {
+                            current.setOutcome(TestCaseResult.Outcome.SKIPPED);
+                        }
+                    }
+                    // Captured output is never needed and can be the bulk of the report
+                    case "system-out", "system-err", "properties" -> skipElement(reader);
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "testcase".equals(reader.getLocalName())) {
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Record a failure element's type, message and stack trace on its test case. Only the
+     * first failure counts; reruns and flaky attempts are reported after it.
+     */
+    private static void readFailure(XMLStreamReader reader, TestCaseResult testCase) throws XMLStreamException {
+        String element = reader.getLocalName();
+        boolean first = !testCase.isFailed();
+        if (first && (element.equals("failure") || element.equals("error"))) {
+            testCase.setOutcome(element.equals("failure") ? TestCaseResult.Outcome.FAILED : TestCaseResult.Outcome.ERROR);
+            testCase.setFailureType(reader.getAttributeValue(null, "type"));
+            testCase.setFailureMessage(reader.getAttributeValue(null, "message"));
+            testCase.setStackTrace(readText(reader, MAX_STACK_TRACE_LENGTH));
+        } else {
+            skipElement(reader);
+        }
+    }
+
+    /**
+     * Read an element's text up to a length, leaving the reader on its end tag
+     */
+    private static String readText(XMLStreamReader reader, int maxLength) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+                    && text.length() < maxLength) {
+                int length = Math.min(reader.getTextLength(), maxLength - text.length());
+                text.append(reader.getTextCharacters(), reader.getTextStart(), length);
+            }
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * Skip an element and everything inside it, leaving the reader on its end tag
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Convert a report's time in seconds, such as "0.012" or "1,234.5", to milliseconds
+     */
+    private static long parseTimeMs(String seconds) {
+        if (seconds == null || seconds.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.round(Double.parseDouble(seconds.replace(",", "")) * 1000);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package demoproject.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import demoproject.config.AgentConfig;
+
+/**
+ * Creates the executors that run per-requirement work, according to the configured execution mode
+ */
+public final class TaskExecutors {
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Create an executor for one kind of work. In virtual mode every task gets its own virtual
+     * thread and concurrency is capped by {@link ResourceLimits} and {@link LlmRateLimiter};
+     * otherwise a fixed pool of daemon platform threads is used.
+     */
+    public static ExecutorService newExecutor(AgentConfig config, String name, int platformThreads) {
+        if (config.isVirtualThreadsEnabled()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), threadFactory);
+    }
+
+    /**
+     * Create an executor for tasks that mostly block, such as draining a child process's output.
+     * It is never bounded, so these tasks cannot starve the work that waits for them.
+     */
+    public static ExecutorService newBlockingIoExecutor(AgentConfig config, String name) {
+        if (config.isVirtualThreadsEnabled()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
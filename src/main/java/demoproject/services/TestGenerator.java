@@ -1,8 +1,13 @@
 package demoproject.services;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -26,11 +31,29 @@ public class TestGenerator {
     private final AgentConfig config;
     private final LlmService llmService;
     private final TestTemplateService templateService;
+    private final ResourceLimits resourceLimits;
+    private GenerationProgressListener progressListener;
+
+    /**
+     * Receives progress while test code is streamed from the LLM
+     */
+    public interface GenerationProgressListener {
+        void onProgress(String requirementId, int receivedChars);
+    }
 
     public TestGenerator(AgentConfig config) {
+        this(config, new LlmService(config));
+    }
+
+    public TestGenerator(AgentConfig config, LlmService llmService) {
         this.config = config;
-        this.llmService = new LlmService(config);
+        this.llmService = llmService;
         this.templateService = new TestTemplateService(config);
+        this.resourceLimits = ResourceLimits.shared(config);
+    }
+
+    public void setProgressListener(GenerationProgressListener progressListener) {
+        this.progressListener = progressListener;
     }
 
     /**
@@ -109,7 +132,10 @@ public class TestGenerator {
 
         try {
             logger.info("Calling LLM service for test generation...");
-            String result = llmService.generateTestCode(prompt);
+            String result = config.isLlmStreamingEnabled()
+                    ? generateTestCodeStreaming(requirement, prompt)
+                    : llmService.generateTestCode(prompt,
+                            LlmCallContext.of(requirement.getId(), LlmCallContext.Stage.TEST_GENERATION));
             logger.info("LLM service returned test code of length: {}", result.length());
             return result;
         } catch (Exception e) {
@@ -118,6 +144,45 @@ public class TestGenerator {
         }
     }
 
+    /**
+     * Stream test code from the LLM into a scratch file next to the requirement's test source
+     * file, reporting progress as it arrives. The complete code is moved into place under the
+     * disk permit, so a stream that fails halfway never leaves a partial test class.
+     */
+    private String generateTestCodeStreaming(Requirement requirement, String prompt) throws IOException {
+        String projectName = requirement.getId().replaceAll("[^a-zA-Z0-9-]", "-").toLowerCase();
+        String testClassName = "Test" + requirement.getId().replaceAll("[^a-zA-Z0-9]", "");
+        Path testPath = Paths.get(config.getOutputFolder(), projectName, "src/test/java/generated/tests");
+        Files.createDirectories(testPath);
+
+        Path partial = Files.createTempFile(testPath, testClassName, ".java.part");
+        try {
+            int[] receivedChars = {0};
+            String generatedCode;
+            try (Writer writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                LlmCallContext context = LlmCallContext.of(requirement.getId(), LlmCallContext.Stage.TEST_GENERATION);
+                generatedCode = llmService.generateStreaming(prompt, context, delta -> {
+                    try {
+                        writer.write(delta);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    receivedChars[0] += delta.length();
+                    if (progressListener != null) {
+                        progressListener.onProgress(requirement.getId(), receivedChars[0]);
+                    }
+                });
+            }
+            try (ResourceLimits.Permit permit = resourceLimits.acquireForIo(ResourceLimits.Resource.DISK)) {
+                Files.move(partial, testPath.resolve(testClassName + ".java"),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return generatedCode;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
     /**
      * Build the prompt for test generation
      */
@@ -126,7 +191,8 @@ public class TestGenerator {
         StringBuilder prompt = new StringBuilder();
         prompt.append("You are a Java test developer. Generate COMPREHENSIVE JUnit test cases.");
         prompt.append("\n\nREQUIREMENT: ").append(requirement.getTitle());
-        prompt.append("\nDESCRIPTION: ").append(requirement.getDescription());
+        prompt.append("\nDESCRIPTION: ").append(llmService.getPromptBudget().fit(requirement.getDescription(),
+                requirement.getTitle() + String.join("\n", requirement.getAcceptanceCriteria())));
         prompt.append("\n\nACCEPTANCE CRITERIA:");
         for (String criterion : requirement.getAcceptanceCriteria()) {
             prompt.append("\n- ").append(criterion);
@@ -267,7 +333,9 @@ public class TestGenerator {
 
         // Write the test file
         Path testFilePath = packagePath.resolve(generatedTest.getFileName());
-        Files.write(testFilePath, generatedTest.getTestContent().getBytes());
+        try (ResourceLimits.Permit permit = resourceLimits.acquireForIo(ResourceLimits.Resource.DISK)) {
+            Files.write(testFilePath, generatedTest.getTestContent().getBytes());
+        }
 
         logger.debug("Written test file: {}", testFilePath);
     }
@@ -1,18 +1,17 @@
 package demoproject.services;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import demoproject.config.AgentConfig;
 import demoproject.models.GeneratedTest;
 import demoproject.models.ProductionCode;
+import demoproject.models.TestCaseResult;
 import demoproject.models.TestResult;
 
 /**
@@ -30,292 +30,310 @@ public class TestRunner {
     private static final Logger logger = LoggerFactory.getLogger(TestRunner.class);
 
     private final AgentConfig config;
-    private final ExecutorService executorService;
+    private final ExecutorService outputReaders;
+    private final ResourceLimits resourceLimits;
+    private final InProcessCompiler compiler;
+    private final CompiledTestExecutor testExecutor;
+    private final String runSettings;
+    private final MavenReactor mavenReactor;
+    private final CompilationCache compilationCache;
 
     public TestRunner(AgentConfig config) {
         this.config = config;
-        this.executorService = Executors.newFixedThreadPool(config.getMaxConcurrentTasks());
+        this.outputReaders = TaskExecutors.newBlockingIoExecutor(config, "test-output");
+        this.resourceLimits = ResourceLimits.shared(config);
+        this.compiler = config.isInProcessCompileEnabled() ? InProcessCompiler.create(config) : null;
+        this.testExecutor = compiler != null ? createTestExecutor(config) : null;
+        this.runSettings = config.getEffectiveTestBackend() + " " + config.getTestTimeoutMs() + " ms";
+        this.mavenReactor = testExecutor == null ? new MavenReactor(config, outputReaders) : null;
+        this.compilationCache = compiler != null && config.isCompileCacheEnabled()
+                ? new CompilationCache(Paths.get(config.getOutputFolder(), ".compile-cache"),
+                        config.getCompileCacheMemoryEntries(), config.getCompileCacheDiskMaxMb() * 1024L * 1024L)
+                : null;
+    }
+
+    /**
+     * Create the executor for compiled tests, or return null if Maven runs them
+     */
+    private static CompiledTestExecutor createTestExecutor(AgentConfig config) {
+        switch (config.getEffectiveTestBackend()) {
+            case "in-process":
+                return new JUnitPlatformExecutor(config.getTestTimeoutMs());
+            case "maven":
+                return null;
+            default:
+                return new TestWorkerPool(config);
+        }
     }
 
     /**
      * Run tests for a specific requirement
      */
     public TestResult runTests(GeneratedTest test, ProductionCode productionCode) {
-        logger.debug("Running tests for requirement: {}", test.getRequirementId());
+        return runTestsAsync(test, productionCode).join();
+    }
+
+    /**
+     * Run tests for a specific requirement without waiting for Maven. The project is prepared,
+     * and compiled and run in-process when possible, on the calling thread; a project that
+     * needs Maven completes when the reactor build it was batched into ends, so the caller's
+     * thread is free to prepare more projects for that batch in the meantime.
+     */
+    public CompletableFuture<TestResult> runTestsAsync(GeneratedTest test, ProductionCode productionCode) {
+        TestResult result = newResult(test);
+        Path projectRoot = prepare(test, productionCode, result);
+        if (projectRoot == null) {
+            return CompletableFuture.completedFuture(result);
+        }
+        // Step 3b: Build the project in the next Maven reactor build, together with every project submitted meanwhile
+        return mavenReactor.submit(projectRoot).handle((module, error) -> {
+            if (error != null) {
+                fail(result, error instanceof Exception e ? e : new RuntimeException(error));
+            } else {
+                collectModuleResult(module, result);
+            }
+            return result;
+        });
+    }
 
+    private static TestResult newResult(GeneratedTest test) {
+        logger.debug("Running tests for requirement: {}", test.getRequirementId());
         TestResult result = new TestResult();
         result.setTestId(test.getId());
         result.setRequirementId(test.getRequirementId());
         result.setStartedAt(LocalDateTime.now());
+        return result;
+    }
 
+    /**
+     * Write the requirement's project, then compile and run its tests without Maven when possible
+     *
+     * @return the project root if Maven still has to run the tests, or null if the result is complete
+     */
+    private Path prepare(GeneratedTest test, ProductionCode productionCode, TestResult result) {
         try {
-            // Step 1: Ensure test and production code are in the right place
-            setupTestEnvironment(test, productionCode);
-
-            // Step 2: Run Maven test command
-            ProcessResult processResult = runMavenTest();
-
-            // Step 3: Parse test results
-            parseTestResults(processResult, result);
-
-            result.setCompletedAt(LocalDateTime.now());
-            result.setSuccess(processResult.exitCode == 0 && result.getFailedTests().isEmpty());
+            // Step 1: Ensure test and production code are in the requirement's own project
+            Path projectRoot = resolveProjectRoot(test.getRequirementId());
+            try (ResourceLimits.Permit permit = resourceLimits.acquire(ResourceLimits.Resource.DISK)) {
+                setupTestEnvironment(projectRoot, test, productionCode);
+            }
 
-            logger.debug("Test execution completed for requirement: {} - Success: {}", 
-                        test.getRequirementId(), result.isSuccess());
+            // Step 2: Compile in-process, so code that does not compile fails without starting Maven
+            if (compiler != null) {
+                Map<String, String> sources = sources(test, productionCode);
+                String cacheKey = compilationCache != null ? CompilationCache.key(compiler.getFingerprint(), sources) : null;
+                CompilationCache.Entry cached = cacheKey != null ? compilationCache.get(cacheKey) : null;
+                InProcessCompiler.CompilationResult compilation;
+                if (cached != null) {
+                    compilation = cached.getCompilation();
+                    logger.debug("Reusing cached compilation for requirement {}", test.getRequirementId());
+                } else {
+                    try (ResourceLimits.Permit permit = resourceLimits.acquire(ResourceLimits.Resource.BUILD)) {
+                        compilation = compiler.compile(sources);
+                    }
+                    if (compilationCache != null) {
+                        cached = new CompilationCache.Entry(compilation);
+                        compilationCache.put(cacheKey, cached);
+                    }
+                }
+                if (!compilation.isSuccess()) {
+                    compilation.getErrors().forEach(result::addCompilationError);
+                    result.setSuccess(false);
+                    result.setCompletedAt(LocalDateTime.now());
+                    logger.debug("Generated code for requirement {} does not compile: {} errors",
+                            test.getRequirementId(), compilation.getErrors().size());
+                    return null;
+                }
 
+                // Step 3a: Run the compiled tests in a worker JVM or in-process, unless these classes already ran
+                if (testExecutor != null) {
+                    if (cached != null && cached.hasRun(runSettings)) {
+                        cached.applyRun(result);
+                        compilationCache.recordRunHit();
+                        logger.debug("Reusing cached test run for requirement {}", test.getRequirementId());
+                    } else {
+                        try (ResourceLimits.Permit permit = resourceLimits.acquire(ResourceLimits.Resource.BUILD)) {
+                            testExecutor.execute(compilation.getClasses(), result);
+                        }
+                        // Timed-out runs depend on load, and a run that ended before any test finished
+                        // (worker crashed) may not repeat, so neither is reused
+                        if (compilationCache != null && !result.isTimedOut()
+                                && (result.getTotalTests() > 0 || result.getFailedTests().isEmpty())) {
+                            compilationCache.putRun(cacheKey, cached, runSettings, result);
+                        }
+                    }
+                    result.setCompletedAt(LocalDateTime.now());
+                    result.setSuccess(result.getFailedTests().isEmpty());
+                    logger.debug("Test execution completed for requirement: {} - Success: {}",
+                            test.getRequirementId(), result.isSuccess());
+                    return null;
+                }
+            }
+            return projectRoot;
         } catch (Exception e) {
-            logger.error("Failed to run tests for requirement: {}", test.getRequirementId(), e);
-            result.setErrorMessage("Test execution failed: " + e.getMessage());
+            fail(result, e);
+            return null;
+        }
+    }
+
+    /**
+     * Fill the result from the project's part of a reactor build
+     */
+    private void collectModuleResult(MavenReactor.ModuleResult module, TestResult result) {
+        // Step 4: Parse test results
+        parseTestResults(module, result);
+        if (module.isTimedOut()) {
+            result.setTimedOut(true);
+            result.addFailedTest("Tests did not finish within " + config.getTestRunTimeoutMs() + " ms; test JVM killed");
+            result.setSuccess(false);
+        } else if (module.getTestCases().isEmpty() && result.getCompilationErrors().isEmpty() && module.getBuildExitCode() != 0) {
+            result.setErrorMessage("Maven build failed: " + String.join("\n", module.getErrors()));
+            if (module.getErrors().isEmpty()) {
+                // Nothing in the log named this project, so keep what the build printed
+                result.setMavenOutput(module.getBuildLog());
+            }
             result.setSuccess(false);
-            result.setCompletedAt(LocalDateTime.now());
         }
+        result.setCompletedAt(LocalDateTime.now());
+        logger.debug("Test execution completed for requirement: {} - Success: {}",
+                result.getRequirementId(), result.isSuccess());
+    }
 
-        return result;
+    private static void fail(TestResult result, Exception e) {
+        logger.error("Failed to run tests for requirement: {}", result.getRequirementId(), e);
+        result.setErrorMessage("Test execution failed: " + e.getMessage());
+        result.setSuccess(false);
+        result.setCompletedAt(LocalDateTime.now());
     }
 
     /**
-     * Setup test environment by creating necessary directories and files
+     * Collect the generated sources of a requirement by file name
      */
-    private void setupTestEnvironment(GeneratedTest test, ProductionCode productionCode) throws IOException {
-        // Determine the project root for this specific requirement
-        Path projectRoot;
+    private Map<String, String> sources(GeneratedTest test, ProductionCode productionCode) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        if (productionCode != null && productionCode.getCode() != null) {
+            sources.put(productionCode.getFileName(), productionCode.getCode());
+        }
+        if (test.getTestCode() != null) {
+            sources.put(test.getFileName(), test.getTestCode());
+        }
+        return sources;
+    }
+
+    /**
+     * Determine the project root of a specific requirement
+     */
+    private Path resolveProjectRoot(String requirementId) {
         if (config.getOutputFolder() != null && !config.getOutputFolder().trim().isEmpty()) {
             // The output folder is the base directory containing all generated projects
             Path outputBase = Paths.get(config.getOutputFolder());
             // Each requirement gets its own project folder
-            String projectName = test.getRequirementId().replaceAll("[^a-zA-Z0-9-]", "-").toLowerCase();
-            projectRoot = outputBase.resolve(projectName);
-        } else {
-            // Fallback to current directory if no output folder configured
-            projectRoot = Paths.get(".");
+            String projectName = requirementId.replaceAll("[^a-zA-Z0-9-]", "-").toLowerCase();
+            return outputBase.resolve(projectName);
         }
-        
+        // Fallback to current directory if no output folder configured
+        return Paths.get(".");
+    }
+
+    /**
+     * Setup test environment by creating necessary directories and files
+     */
+    private void setupTestEnvironment(Path projectRoot, GeneratedTest test, ProductionCode productionCode) throws IOException {
         // Create source directories
         Path srcMainJava = projectRoot.resolve("src/main/java");
         Path srcTestJava = projectRoot.resolve("src/test/java");
         Files.createDirectories(srcMainJava);
         Files.createDirectories(srcTestJava);
 
+        // Give the project its own build file, so Maven builds only this requirement
+        Path pom = projectRoot.resolve("pom.xml");
+        if (!Files.exists(pom)) {
+            Files.writeString(pom, GeneratedProject.pom(projectRoot.getFileName().toString()));
+        }
+
         // Write production code
         if (productionCode != null && productionCode.getCode() != null) {
             Path productionPath = srcMainJava.resolve("generated/code");
             Files.createDirectories(productionPath);
-            Files.write(productionPath.resolve(productionCode.getFileName()), 
-                       productionCode.getCode().getBytes());
+            writeIfChanged(productionPath.resolve(productionCode.getFileName()), productionCode.getCode());
         }
 
         // Write test code
         if (test.getTestCode() != null) {
             Path testPath = srcTestJava.resolve("generated/tests");
             Files.createDirectories(testPath);
-            Files.write(testPath.resolve(test.getFileName()), 
-                       test.getTestCode().getBytes());
+            writeIfChanged(testPath.resolve(test.getFileName()), test.getTestCode());
         }
     }
 
     /**
-     * Run Maven test command
+     * Write a source file unless it already has this content, so unchanged files keep their
+     * modification time and Maven's incremental compilation leaves them alone
      */
-    private ProcessResult runMavenTest() throws IOException, InterruptedException {
-        // Determine the project root for this specific requirement
-        Path projectRoot;
-        if (config.getOutputFolder() != null && !config.getOutputFolder().trim().isEmpty()) {
-            // The output folder is the base directory containing all generated projects
-            Path outputBase = Paths.get(config.getOutputFolder());
-            // Each requirement gets its own project folder - we need to determine which one
-            // For now, we'll use the first project found, but ideally we should pass the requirement ID
-            try {
-                // List all project directories and use the first one
-                Path[] projectDirs = Files.list(outputBase)
-                    .filter(Files::isDirectory)
-                    .toArray(Path[]::new);
-                if (projectDirs.length > 0) {
-                    projectRoot = projectDirs[0];
-                } else {
-                    projectRoot = Paths.get(".");
-                }
-            } catch (IOException e) {
-                logger.warn("Could not list output directory, using current directory", e);
-                projectRoot = Paths.get(".");
-            }
-        } else {
-            // Fallback to current directory if no output folder configured
-            projectRoot = Paths.get(".");
-        }
-        
-        ProcessBuilder processBuilder = new ProcessBuilder();
-        processBuilder.directory(projectRoot.toFile());
-        
-        // Determine the Maven command based on OS
-        String mavenCommand = isWindows() ? "mvn.cmd" : "mvn";
-        processBuilder.command(mavenCommand, "test", "-q");
-        
-        logger.debug("Running Maven test command: {} in directory: {}", String.join(" ", processBuilder.command()), projectRoot);
-        
-        Process process = processBuilder.start();
-        
-        // Capture output
-        StringBuilder output = new StringBuilder();
-        StringBuilder error = new StringBuilder();
-        
-        try (BufferedReader stdInput = new BufferedReader(new InputStreamReader(process.getInputStream()));
-             BufferedReader stdError = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-            
-            // Read output in parallel
-            CompletableFuture<Void> outputFuture = CompletableFuture.runAsync(() -> {
-                try {
-                    String line;
-                    while ((line = stdInput.readLine()) != null) {
-                        output.append(line).append("\n");
-                    }
-                } catch (IOException e) {
-                    logger.error("Error reading process output", e);
-                }
-            }, executorService);
-            
-            CompletableFuture<Void> errorFuture = CompletableFuture.runAsync(() -> {
-                try {
-                    String line;
-                    while ((line = stdError.readLine()) != null) {
-                        error.append(line).append("\n");
-                    }
-                } catch (IOException e) {
-                    logger.error("Error reading process error", e);
-                }
-            }, executorService);
-            
-            // Wait for process to complete
-            int exitCode = process.waitFor();
-            
-            // Wait for output reading to complete
-            outputFuture.join();
-            errorFuture.join();
-            
-            return new ProcessResult(exitCode, output.toString(), error.toString());
-            
-        } finally {
-            process.destroy();
+    private static void writeIfChanged(Path file, String content) throws IOException {
+        byte[] bytes = content.getBytes();
+        if (Files.isRegularFile(file) && Files.size(file) == bytes.length && Arrays.equals(Files.readAllBytes(file), bytes)) {
+            return;
         }
+        Files.write(file, bytes);
     }
 
     /**
-     * Parse test results from Maven output
+     * Fill the result from the project's Surefire test cases and Maven's errors
      */
-    private void parseTestResults(ProcessResult processResult, TestResult result) {
-        String output = processResult.output;
-        String error = processResult.error;
-        
-        // Parse test statistics
-        parseTestStatistics(output, result);
-        
-        // Parse failed tests
-        parseFailedTests(output, result);
-        
+    private void parseTestResults(MavenReactor.ModuleResult module, TestResult result) {
+        int passed = 0;
+        for (TestCaseResult testCase : module.getTestCases()) {
+            result.addTestCase(testCase);
+            if (testCase.getOutcome() == TestCaseResult.Outcome.PASSED) {
+                passed++;
+            } else if (testCase.isFailed()) {
+                result.addFailedTest(testCase.describe());
+                // A test that exceeded the per-test timeout failed with Jupiter's TimeoutException
+                if (TimeoutException.class.getName().equals(testCase.getFailureType())) {
+                    result.setTimedOut(true);
+                }
+            }
+        }
+        result.setTotalTests(module.getTestCases().size());
+        result.setPassedTests(passed);
+
         // Parse compilation errors
-        parseCompilationErrors(error, result);
-        
+        parseCompilationErrors(module.getErrors(), result);
+
         // Set overall result
-        result.setTotalTests(result.getPassedTests() + result.getFailedTests().size());
         result.setSuccess(result.getFailedTests().isEmpty() && result.getCompilationErrors().isEmpty());
     }
 
     /**
-     * Parse test statistics from Maven output
-     */
-    private void parseTestStatistics(String output, TestResult result) {
-        // Look for patterns like "Tests run: 5, Failures: 0, Errors: 0, Skipped: 0"
-        Pattern statsPattern = Pattern.compile("Tests run: (\\d+), Failures: (\\d+), Errors: (\\d+), Skipped: (\\d+)");
-        Matcher matcher = statsPattern.matcher(output);
-        
-        if (matcher.find()) {
-            result.setTotalTests(Integer.parseInt(matcher.group(1)));
-            int failures = Integer.parseInt(matcher.group(2));
-            int errors = Integer.parseInt(matcher.group(3));
-            result.setPassedTests(result.getTotalTests() - failures - errors);
-        }
-    }
-
-    /**
-     * Parse failed tests from Maven output
+     * Parse compilation errors from Maven's error lines for the project
      */
-    private void parseFailedTests(String output, TestResult result) {
-        // Look for test failure patterns
-        Pattern failurePattern = Pattern.compile("\\[ERROR\\] (\\w+)\\(([^)]+)\\)");
-        Matcher matcher = failurePattern.matcher(output);
-        
-        while (matcher.find()) {
-            String testName = matcher.group(1);
-            String className = matcher.group(2);
-            result.addFailedTest(testName + " in " + className);
-        }
-    }
-
-    /**
-     * Parse compilation errors from Maven output
-     */
-    private void parseCompilationErrors(String error, TestResult result) {
-        // Look for compilation error patterns
-        Pattern compilePattern = Pattern.compile("\\[ERROR\\] COMPILATION ERROR");
-        if (compilePattern.matcher(error).find()) {
-            // Extract compilation errors
-            String[] lines = error.split("\n");
-            for (String line : lines) {
-                if (line.contains("[ERROR]") && !line.contains("COMPILATION ERROR")) {
-                    result.addCompilationError(line.trim());
-                }
+    private void parseCompilationErrors(List<String> errors, TestResult result) {
+        // Look for lines like "[ERROR] /path/CalculatorService.java:[12,5] cannot find symbol"
+        for (String line : errors) {
+            if (line.contains(".java:[")) {
+                result.addCompilationError(line.substring("[ERROR]".length()).trim());
             }
         }
     }
 
     /**
-     * Run tests for multiple requirements
+     * Get the cache of in-process compilations, or null if it is disabled
      */
-    public List<TestResult> runTestsForRequirements(List<GeneratedTest> tests, List<ProductionCode> productionCodes) {
-        logger.info("Running tests for {} requirements", tests.size());
-        
-        List<CompletableFuture<TestResult>> futures = tests.stream()
-                .map(test -> CompletableFuture.<TestResult>supplyAsync(() -> {
-                    ProductionCode productionCode = productionCodes.stream()
-                            .filter(code -> code.getRequirementId().equals(test.getRequirementId()))
-                            .findFirst()
-                            .orElse(null);
-                    
-                    return runTests(test, productionCode);
-                }, executorService))
-                .toList();
-
-        return futures.stream()
-                .map(CompletableFuture::join)
-                .toList();
-    }
-
-    /**
-     * Check if running on Windows
-     */
-    private boolean isWindows() {
-        return System.getProperty("os.name").toLowerCase().contains("windows");
+    public CompilationCache getCompilationCache() {
+        return compilationCache;
     }
 
     /**
      * Shutdown the test runner
      */
     public void shutdown() {
-        executorService.shutdown();
-    }
-
-    /**
-     * Process result holder
-     */
-    private static class ProcessResult {
-        final int exitCode;
-        final String output;
-        final String error;
-
-        ProcessResult(int exitCode, String output, String error) {
-            this.exitCode = exitCode;
-            this.output = output;
-            this.error = error;
+        outputReaders.shutdown();
+        if (compiler != null) {
+            compiler.close();
+        }
+        if (testExecutor != null) {
+            testExecutor.close();
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package demoproject.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import demoproject.models.TestResult;
+
+/**
+ * Entry point of a test worker JVM started by {@link TestWorkerPool}. Reads batches of compiled
+ * classes from stdin, runs their tests with {@link JUnitPlatformExecutor} and writes the results
+ * to stdout, until stdin is closed.
+ *
+ * <p>Request: class count, then name, length and bytes of each class.
+ * Response: healthy flag, error message ("" if none), total, passed, timed-out flag, failure count
+ * and failures.
+ * A worker reports itself unhealthy when tests left threads running or ran out of memory, so the
+ * pool retires it.
+ */
+public final class TestWorker {
+
+    /** Longest failure message sent back, in characters */
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private TestWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // stdout carries the protocol, so anything the tests print goes to stderr instead
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        System.setOut(System.err);
+
+        long testTimeoutMs = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        // The pool enforces the run timeout by killing the worker
+        JUnitPlatformExecutor executor = new JUnitPlatformExecutor(testTimeoutMs);
+        warmUp(executor);
+
+        while (true) {
+            Map<String, byte[]> classes;
+            try {
+                classes = readRequest(in);
+            } catch (EOFException e) {
+                return;
+            }
+
+            int threadsBefore = Thread.activeCount();
+            TestResult result = new TestResult();
+            String error = "";
+            boolean outOfMemory = false;
+            try {
+                executor.execute(classes, result);
+            } catch (Exception | LinkageError e) {
+                error = truncate(e.toString());
+            } catch (OutOfMemoryError e) {
+                // JUnit rethrows it; the heap is free again once the tests' objects are unreachable
+                error = truncate(e.toString());
+                outOfMemory = true;
+            }
+            boolean healthy = !outOfMemory && Thread.activeCount() <= threadsBefore;
+
+            out.writeBoolean(healthy);
+            out.writeUTF(error);
+            out.writeInt(result.getTotalTests());
+            out.writeInt(result.getPassedTests());
+            out.writeBoolean(result.isTimedOut());
+            List<String> failures = result.getFailedTests();
+            out.writeInt(failures.size());
+            for (String failure : failures) {
+                out.writeUTF(truncate(failure));
+            }
+            out.flush();
+            if (!healthy) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Load the launcher and engine classes before the first request arrives
+     */
+    private static void warmUp(JUnitPlatformExecutor executor) {
+        try {
+            executor.execute(Map.of(), new TestResult());
+        } catch (Exception e) {
+            // The first real request reports the problem
+        }
+    }
+
+    private static Map<String, byte[]> readRequest(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, byte[]> classes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            classes.put(name, bytes);
+        }
+        return classes;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) + "..." : message;
+    }
+}
@@ -0,0 +1,209 @@
+package demoproject.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import demoproject.config.AgentConfig;
+import demoproject.models.TestResult;
+
+/**
+ * Pool of long-lived worker JVMs ({@link TestWorker}) that run generated tests out of the
+ * agent's process. A worker starts once and keeps JUnit loaded, so each run only pays for
+ * sending the class files. A worker is replaced after a configured number of runs, when its
+ * tests leave threads behind, when it dies (e.g. a test calls System.exit), or when a run
+ * exceeds the run timeout.
+ */
+public class TestWorkerPool implements CompiledTestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestWorkerPool.class);
+
+    private final List<String> command;
+    private final int maxRunsPerWorker;
+    private final long runTimeoutMs;
+    private final ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService watchdog;
+
+    public TestWorkerPool(AgentConfig config) {
+        this.maxRunsPerWorker = Math.max(1, config.getTestWorkerMaxRuns());
+        this.runTimeoutMs = config.getTestRunTimeoutMs();
+        this.command = List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + config.getTestMaxHeapMb() + "m",
+                "-XX:+UseSerialGC",
+                "-XX:TieredStopAtLevel=1",
+                "-Xshare:auto",
+                "-DLOG_LEVEL=WARN",
+                "-cp", workerClasspath(),
+                TestWorker.class.getName(),
+                String.valueOf(config.getTestTimeoutMs()));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "test-worker-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Start the workers now, so they have booted by the time the first tests are ready
+        for (int i = 0; i < config.getBuildMaxConcurrency(); i++) {
+            try {
+                idleWorkers.add(new Worker(command));
+            } catch (IOException e) {
+                logger.warn("Failed to start test worker", e);
+                break;
+            }
+        }
+    }
+
+    /**
+     * The agent's own classpath. Under exec:java the application is loaded by a URL class
+     * loader and java.class.path only holds Maven's launcher, so the loader's URLs are used.
+     */
+    private static String workerClasspath() {
+        if (TestWorkerPool.class.getClassLoader() instanceof URLClassLoader loader && loader.getURLs().length > 0) {
+            List<String> entries = new ArrayList<>();
+            for (URL url : loader.getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    logger.debug("Skipping classpath entry {}", url);
+                }
+            }
+            return String.join(File.pathSeparator, entries);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    @Override
+    public void execute(Map<String, byte[]> classes, TestResult result) throws IOException {
+        Worker worker = idleWorkers.poll();
+        if (worker == null || !worker.process.isAlive()) {
+            if (worker != null) {
+                worker.destroy();
+            }
+            worker = new Worker(command);
+        }
+
+        boolean reusable = false;
+        AtomicBoolean timedOut = new AtomicBoolean();
+        Worker running = worker;
+        ScheduledFuture<?> deadline = runTimeoutMs > 0
+                ? watchdog.schedule(() -> {
+                    timedOut.set(true);
+                    running.destroy();
+                }, runTimeoutMs, TimeUnit.MILLISECONDS)
+                : null;
+        try {
+            reusable = worker.run(classes, result);
+        } catch (IOException e) {
+            // The worker died: the generated code exited the JVM or hung past the run timeout
+            if (timedOut.get()) {
+                result.setTimedOut(true);
+                result.addFailedTest("Tests did not finish within " + runTimeoutMs + " ms; test worker killed");
+            } else {
+                result.addFailedTest("Test worker exited while running tests" + worker.exitDescription());
+            }
+            logger.debug("Test worker failed for requirement {}", result.getRequirementId(), e);
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            if (reusable && ++worker.runs < maxRunsPerWorker) {
+                idleWorkers.add(worker);
+            } else {
+                worker.destroy();
+            }
+        }
+    }
+
+    /**
+     * Stop every idle worker
+     */
+    @Override
+    public void close() {
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.destroy();
+        }
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * One worker JVM and the streams of its protocol
+     */
+    private static class Worker {
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+        private int runs;
+
+        Worker(List<String> command) throws IOException {
+            this.process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        /**
+         * Send the classes, wait for the outcome and copy it into the result
+         *
+         * @return whether the worker can take another run
+         */
+        boolean run(Map<String, byte[]> classes, TestResult result) throws IOException {
+            requests.writeInt(classes.size());
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                requests.writeUTF(entry.getKey());
+                requests.writeInt(entry.getValue().length);
+                requests.write(entry.getValue());
+            }
+            requests.flush();
+
+            boolean healthy = responses.readBoolean();
+            String error = responses.readUTF();
+            result.setTotalTests(responses.readInt());
+            result.setPassedTests(responses.readInt());
+            result.setTimedOut(responses.readBoolean());
+            int failures = responses.readInt();
+            for (int i = 0; i < failures; i++) {
+                result.addFailedTest(responses.readUTF());
+            }
+            if (!error.isEmpty()) {
+                result.addFailedTest("Tests could not be run: " + error);
+            }
+            return healthy;
+        }
+
+        String exitDescription() {
+            try {
+                return process.waitFor(1, TimeUnit.SECONDS) ? " (exit code " + process.exitValue() + ")" : "";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "";
+            }
+        }
+
+        void destroy() {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+}
@@ -26,8 +26,12 @@ public class Validator {
     private final LlmService llmService;
 
     public Validator(AgentConfig config) {
+        this(config, new LlmService(config));
+    }
+
+    public Validator(AgentConfig config, LlmService llmService) {
         this.config = config;
-        this.llmService = new LlmService(config);
+        this.llmService = llmService;
     }
 
     public LlmService getLlmService() {
@@ -219,6 +223,11 @@ public class Validator {
             resultIssues.add("Test failures found: " + testResult.getFailedTestCount());
         }
 
+        // Check for tests cut short by a timeout, e.g. an endless loop in the generated code
+        if (testResult.isTimedOut()) {
+            resultIssues.add("Tests timed out");
+        }
+
         // Check test success rate
         if (testResult.getSuccessRate() < 100.0) {
             resultIssues.add("Test success rate below 100%: " + String.format("%.1f%%", testResult.getSuccessRate()));
@@ -238,6 +247,12 @@ public class Validator {
     private void generateImprovementSuggestions(Requirement requirement, GeneratedTest test,
             ProductionCode productionCode, TestResult testResult,
             ValidationReport report) {
+        // Test and production code share what the rest of the prompt leaves of the budget
+        PromptBudget budget = llmService.getPromptBudget();
+        String fixedPart = requirement.getTestGenerationSummary() + testResult.getSummary()
+                + String.join("\n", report.getAllIssues());
+        int codeInputs = productionCode != null ? 2 : 1;
+
         StringBuilder prompt = new StringBuilder();
         prompt.append("Analyze the following TDD implementation and suggest improvements:\n\n");
 
@@ -245,11 +260,11 @@ public class Validator {
         prompt.append(requirement.getTestGenerationSummary()).append("\n\n");
 
         prompt.append("Test Code:\n");
-        prompt.append(test.getTestCode()).append("\n\n");
+        prompt.append(budget.fit(test.getTestCode(), fixedPart, codeInputs)).append("\n\n");
 
         if (productionCode != null) {
             prompt.append("Production Code:\n");
-            prompt.append(productionCode.getCode()).append("\n\n");
+            prompt.append(budget.fit(productionCode.getCode(), fixedPart, codeInputs)).append("\n\n");
         }
 
         prompt.append("Test Results:\n");
@@ -268,7 +283,8 @@ public class Validator {
         prompt.append("Focus on practical improvements that can be implemented.");
 
         try {
-            String suggestions = llmService.generateSuggestions(prompt.toString());
+            String suggestions = llmService.generateSuggestions(prompt.toString(),
+                    LlmCallContext.of(requirement.getId(), LlmCallContext.Stage.VALIDATION));
             report.setImprovementSuggestions(suggestions);
         } catch (Exception e) {
             logger.error("Failed to generate improvement suggestions", e);
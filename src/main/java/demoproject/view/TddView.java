@@ -46,6 +46,14 @@ public class TddView {
         System.out.println("🔄 " + step + ": " + message);
     }
     
+    /**
+     * Display live progress of a streamed generation
+     */
+    public void displayStreamProgress(String requirementId, int receivedChars) {
+        System.out.print("\r📡 " + requirementId + ": " + receivedChars + " characters received");
+        System.out.flush();
+    }
+    
     /**
      * Display requirements summary
      */
@@ -87,10 +95,12 @@ public class TddView {
      */
     public void displayTestResults(List<TestResult> results) {
         System.out.println("\n✅ TEST RESULTS (" + results.size() + "):");
-        int passed = 0, failed = 0;
+        int passed = 0, failed = 0, timedOut = 0;
         
         for (TestResult result : results) {
-            if (result.isSuccess()) {
+            if (result.isTimedOut()) {
+                timedOut++;
+            } else if (result.isSuccess()) {
                 passed++;
             } else {
                 failed++;
@@ -99,6 +109,9 @@ public class TddView {
         
         System.out.println("   ✅ Passed: " + passed);
         System.out.println("   ❌ Failed: " + failed);
+        if (timedOut > 0) {
+            System.out.println("   ⏱️ Timed out: " + timedOut);
+        }
         System.out.println();
     }
     
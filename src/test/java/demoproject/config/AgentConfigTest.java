@@ -0,0 +1,67 @@
+package demoproject.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AgentConfig Tests")
+class AgentConfigTest {
+
+    @TempDir
+    Path folder;
+
+    private AgentConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new AgentConfig();
+        config.setRequirementsFolder(folder.resolve("requirements").toString());
+        config.setOutputFolder(folder.resolve("output").toString());
+    }
+
+    @Test
+    @DisplayName("Should reject a run timeout with the in-process test backend, which cannot enforce it")
+    void shouldRejectRunTimeoutInProcess() {
+        // Given
+        config.setTestBackend("in-process");
+        config.setTestRunTimeoutMs(60_000);
+
+        // When
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, config::validate);
+
+        // Then
+        assertTrue(error.getMessage().contains("test.backend=worker"));
+    }
+
+    @Test
+    @DisplayName("Should accept the in-process test backend without a run timeout")
+    void shouldAcceptInProcessWithoutRunTimeout() {
+        // Given
+        config.setTestBackend("in-process");
+        config.setTestRunTimeoutMs(0);
+
+        // When / Then
+        assertDoesNotThrow(config::validate);
+    }
+
+    @Test
+    @DisplayName("Should accept a run timeout with backends that kill the test JVM")
+    void shouldAcceptRunTimeoutWithKillableBackends() {
+        // Given
+        config.setTestRunTimeoutMs(60_000);
+
+        // When / Then
+        config.setTestBackend("worker");
+        assertDoesNotThrow(config::validate);
+        config.setTestBackend("maven");
+        assertDoesNotThrow(config::validate);
+        config.setTestBackend("in-process");
+        config.setCompileBackend("maven");
+        assertDoesNotThrow(config::validate, "without the in-process compiler Maven runs the tests");
+    }
+}
@@ -0,0 +1,107 @@
+package demoproject.controller;
+
+import demoproject.models.Requirement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequirementGraph Tests")
+class RequirementGraphTest {
+
+    private static Requirement requirement(String id, String title, String... dependencies) {
+        Requirement requirement = new Requirement(id, title, "Description of " + title);
+        requirement.setDependencies(List.of(dependencies));
+        return requirement;
+    }
+
+    private static List<String> ids(List<Requirement> requirements) {
+        return requirements.stream().map(Requirement::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should schedule every prerequisite before its dependents")
+    void shouldScheduleDependenciesFirst() {
+        // Given
+        RequirementGraph graph = new RequirementGraph(List.of(
+                requirement("REQ-3", "Checkout", "REQ-2"),
+                requirement("REQ-2", "Cart", "REQ-1"),
+                requirement("REQ-1", "Catalog")));
+
+        // When
+        List<String> order = ids(graph.getSchedulingOrder());
+
+        // Then
+        assertEquals(List.of("REQ-1", "REQ-2", "REQ-3"), order);
+        assertEquals(Set.of("REQ-1"), graph.getPrerequisites("REQ-2"));
+        assertEquals(Set.of("REQ-3"), graph.getDependents("REQ-2"));
+        assertEquals(2, graph.getEdgeCount());
+        assertEquals(3, graph.getLongestPathLength());
+    }
+
+    @Test
+    @DisplayName("Should link dependencies by ID or title and ignore external ones")
+    void shouldLinkByIdAndTitle() {
+        // Given
+        RequirementGraph graph = new RequirementGraph(List.of(
+                requirement("REQ-1", "User Login"),
+                requirement("REQ-2", "Password Reset", "user login"),
+                requirement("REQ-3", "Audit Log", "Depends on req-2 being deployed", "PostgreSQL 15"),
+                requirement("REQ-10", "Reporting", "REQ-1-legacy")));
+
+        // Then
+        assertEquals(Set.of("REQ-1"), graph.getPrerequisites("REQ-2"));
+        assertEquals(Set.of("REQ-2"), graph.getPrerequisites("REQ-3"));
+        assertEquals(Set.of(), graph.getPrerequisites("REQ-10"), "REQ-1-legacy names no requirement of the set");
+        assertEquals(2, graph.getEdgeCount());
+        assertTrue(graph.getCycleMembers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should drop the edges of a cycle and still schedule every requirement")
+    void shouldBreakCycles() {
+        // Given
+        RequirementGraph graph = new RequirementGraph(List.of(
+                requirement("REQ-1", "Orders", "REQ-2"),
+                requirement("REQ-2", "Invoices", "REQ-1"),
+                requirement("REQ-3", "Shipping", "REQ-2"),
+                requirement("REQ-4", "Inventory")));
+
+        // When
+        List<String> order = ids(graph.getSchedulingOrder());
+
+        // Then
+        assertEquals(Set.of("REQ-1", "REQ-2"), graph.getCycleMembers());
+        assertTrue(graph.getPrerequisites("REQ-1").isEmpty());
+        assertTrue(graph.getPrerequisites("REQ-2").isEmpty());
+        assertEquals(Set.of("REQ-2"), graph.getPrerequisites("REQ-3"), "edges behind the cycle are kept");
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf("REQ-2") < order.indexOf("REQ-3"));
+    }
+
+    @Test
+    @DisplayName("Should start the longest critical path first, then keep file order")
+    void shouldPrioritiseCriticalPath() {
+        // Given
+        RequirementGraph graph = new RequirementGraph(List.of(
+                requirement("REQ-1", "Standalone A"),
+                requirement("REQ-2", "Standalone B"),
+                requirement("REQ-3", "Chain start"),
+                requirement("REQ-4", "Chain middle", "REQ-3"),
+                requirement("REQ-5", "Chain end", "REQ-4"),
+                requirement("REQ-6", "Short chain start"),
+                requirement("REQ-7", "Short chain end", "REQ-6")));
+
+        // When
+        List<String> order = ids(graph.getSchedulingOrder());
+
+        // Then
+        assertEquals(3, graph.getCriticalPathLength("REQ-3"));
+        assertEquals(2, graph.getCriticalPathLength("REQ-6"));
+        assertEquals(1, graph.getCriticalPathLength("REQ-1"));
+        assertEquals(List.of("REQ-3", "REQ-4", "REQ-6", "REQ-1", "REQ-2", "REQ-5", "REQ-7"), order);
+    }
+}
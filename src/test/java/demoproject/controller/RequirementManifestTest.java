@@ -0,0 +1,157 @@
+package demoproject.controller;
+
+import demoproject.config.AgentConfig;
+import demoproject.models.GeneratedTest;
+import demoproject.models.ProductionCode;
+import demoproject.models.Requirement;
+import demoproject.models.TestResult;
+import demoproject.models.ValidationReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequirementManifest Tests")
+class RequirementManifestTest {
+
+    @TempDir
+    Path outputFolder;
+
+    private AgentConfig config;
+    private Path runsFolder;
+    private Path manifestFile;
+
+    @BeforeEach
+    void setUp() {
+        config = new AgentConfig();
+        config.setOutputFolder(outputFolder.toString());
+        runsFolder = outputFolder.resolve(".runs");
+        manifestFile = runsFolder.resolve("manifest.json");
+    }
+
+    private static Requirement requirement(String id, String description, String... dependencies) {
+        Requirement requirement = new Requirement(id, "Title of " + id, description);
+        requirement.setAcceptanceCriteria(List.of("It works"));
+        requirement.setDependencies(List.of(dependencies));
+        return requirement;
+    }
+
+    /**
+     * REQ-1 <- REQ-2 <- REQ-3 form a chain; REQ-4 and REQ-5 stand alone
+     */
+    private static List<Requirement> requirements(String firstDescription) {
+        return List.of(
+                requirement("REQ-1", firstDescription),
+                requirement("REQ-2", "Builds on the first", "REQ-1"),
+                requirement("REQ-3", "Builds on the second", "REQ-2"),
+                requirement("REQ-4", "Unrelated feature"),
+                requirement("REQ-5", "Another unrelated feature"));
+    }
+
+    /**
+     * Journal every stage of every requirement, create its project folder and save the manifest
+     */
+    private void completeRun(List<Requirement> requirements) throws IOException {
+        try (RunJournal journal = RunJournal.start(runsFolder)) {
+            for (Requirement requirement : requirements) {
+                String id = requirement.getId();
+                journal.record(id, RunJournal.Stage.TEST, new GeneratedTest("T-" + id, id, "Test"));
+                journal.record(id, RunJournal.Stage.CODE, new ProductionCode("C-" + id, id, "Code"));
+                journal.record(id, RunJournal.Stage.REFACTOR, new ProductionCode("R-" + id, id, "Code"));
+                journal.record(id, RunJournal.Stage.RUN, new TestResult("T-" + id, id));
+                journal.record(id, RunJournal.Stage.VALIDATE, validated(id));
+                Files.createDirectories(outputFolder.resolve(id.toLowerCase()));
+            }
+            RequirementManifest.load(manifestFile, config).update(requirements, journal);
+        }
+    }
+
+    private static ValidationReport validated(String requirementId) {
+        ValidationReport report = new ValidationReport(requirementId, "T-" + requirementId);
+        report.setValidationCompleted(true);
+        return report;
+    }
+
+    @Test
+    @DisplayName("Should regenerate a changed requirement and its transitive dependents, reusing the rest")
+    void shouldMarkTransitiveDependentsStale() throws IOException {
+        // Given
+        completeRun(requirements("The first feature"));
+        List<Requirement> changed = requirements("The first feature, now with rounding");
+
+        // When
+        int reused;
+        try (RunJournal journal = RunJournal.start(runsFolder)) {
+            reused = RequirementManifest.load(manifestFile, config)
+                    .reuseUnchanged(new RequirementGraph(changed), journal, runsFolder);
+
+            // Then
+            assertEquals(2, reused);
+            assertFalse(journal.isCompleted("REQ-1"), "REQ-1 changed");
+            assertFalse(journal.isCompleted("REQ-2"), "REQ-2 depends on REQ-1");
+            assertFalse(journal.isCompleted("REQ-3"), "REQ-3 depends on REQ-1 through REQ-2");
+            assertTrue(journal.isCompleted("REQ-4"));
+            assertTrue(journal.isCompleted("REQ-5"));
+            assertEquals("T-REQ-4", journal.get("REQ-4", RunJournal.Stage.TEST, GeneratedTest.class).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse every requirement of an unchanged set")
+    void shouldReuseUnchangedRequirements() throws IOException {
+        // Given
+        completeRun(requirements("The first feature"));
+
+        // When
+        try (RunJournal journal = RunJournal.start(runsFolder)) {
+            int reused = RequirementManifest.load(manifestFile, config)
+                    .reuseUnchanged(new RequirementGraph(requirements("  The first\n feature ")), journal, runsFolder);
+
+            // Then
+            assertEquals(5, reused, "whitespace changes do not count");
+        }
+    }
+
+    @Test
+    @DisplayName("Should regenerate a requirement whose project folder is gone, and its dependents")
+    void shouldRegenerateWhenProjectFolderIsGone() throws IOException {
+        // Given
+        completeRun(requirements("The first feature"));
+        Files.delete(outputFolder.resolve("req-2"));
+
+        // When
+        try (RunJournal journal = RunJournal.start(runsFolder)) {
+            int reused = RequirementManifest.load(manifestFile, config)
+                    .reuseUnchanged(new RequirementGraph(requirements("The first feature")), journal, runsFolder);
+
+            // Then
+            assertEquals(3, reused);
+            assertTrue(journal.isCompleted("REQ-1"));
+            assertFalse(journal.isCompleted("REQ-2"));
+            assertFalse(journal.isCompleted("REQ-3"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should change the fingerprint with the content and generation settings, but not with whitespace")
+    void shouldFingerprintContentAndSettings() {
+        // Given
+        RequirementManifest manifest = RequirementManifest.load(manifestFile, config);
+        String fingerprint = manifest.fingerprint(requirement("REQ-1", "Adds numbers"));
+
+        // Then
+        assertEquals(fingerprint, manifest.fingerprint(requirement("REQ-1", " Adds\n\tnumbers ")));
+        assertNotEquals(fingerprint, manifest.fingerprint(requirement("REQ-1", "Subtracts numbers")));
+        assertNotEquals(fingerprint, manifest.fingerprint(requirement("REQ-1", "Adds numbers", "REQ-9")));
+
+        config.setLlmModel("another-model");
+        assertNotEquals(fingerprint, manifest.fingerprint(requirement("REQ-1", "Adds numbers")));
+    }
+}
@@ -0,0 +1,321 @@
+package demoproject.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demoproject.models.GeneratedTest;
+import demoproject.models.ProductionCode;
+import demoproject.models.TestCase;
+import demoproject.models.TestCaseResult;
+import demoproject.models.TestResult;
+import demoproject.models.ValidationReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RunJournal Tests")
+class RunJournalTest {
+
+    private static final LocalDateTime GENERATED_AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+    @TempDir
+    Path journalDir;
+
+    private static GeneratedTest generatedTest() {
+        TestCase testCase = new TestCase("adds numbers", "Adds two numbers");
+        testCase.setTestMethodName("shouldAddNumbers");
+        testCase.setSteps(List.of("call add(2, 3)"));
+        testCase.setExpectedResults(List.of("returns 5"));
+        testCase.setTestData(List.of("2", "3"));
+        testCase.setPriority("HIGH");
+        testCase.setType(TestCase.TestType.UNIT);
+        testCase.setCategory("arithmetic");
+        testCase.setParameterized(true);
+        testCase.setParameters(List.of("a", "b"));
+
+        GeneratedTest test = new GeneratedTest("TEST-1", "REQ-1", "CalculatorTest");
+        test.setTestClassName("CalculatorTest");
+        test.setTestContent("public class CalculatorTest {}");
+        test.setFileName("CalculatorTest.java");
+        test.setPackageName("generated.code");
+        test.setTestFramework("JUnit 5");
+        test.setLanguage("Java");
+        test.setTestCases(new ArrayList<>(List.of(testCase)));
+        test.setGeneratedAt(GENERATED_AT);
+        test.setGeneratedBy("stub-model");
+        test.setStatus(GeneratedTest.TestStatus.GENERATED);
+        test.setErrorMessage("none");
+        return test;
+    }
+
+    private static ProductionCode productionCode() {
+        ProductionCode code = new ProductionCode("CODE-1", "REQ-1", "Calculator");
+        code.setFileName("Calculator.java");
+        code.setCode("public class Calculator {}");
+        code.setErrorMessage("none");
+        code.setStatus(ProductionCode.CodeStatus.COMPILED);
+        code.setGeneratedAt(GENERATED_AT);
+        code.setCompiledAt(GENERATED_AT.plusSeconds(2));
+        code.setCompilationSuccess(true);
+        code.setCompilationErrors("warning: unchecked");
+        return code;
+    }
+
+    private static TestResult testResult() {
+        TestCaseResult testCase = new TestCaseResult("generated.code.CalculatorTest", "shouldDivide", 12);
+        testCase.setOutcome(TestCaseResult.Outcome.FAILED);
+        testCase.setFailureType("org.opentest4j.AssertionFailedError");
+        testCase.setFailureMessage("expected: <2> but was: <3>");
+        testCase.setStackTrace("at generated.code.CalculatorTest.shouldDivide(CalculatorTest.java:21)");
+
+        TestResult result = new TestResult("TEST-1", "REQ-1");
+        result.setStartedAt(GENERATED_AT);
+        result.setCompletedAt(GENERATED_AT.plusSeconds(5));
+        result.setSuccess(true);
+        result.setTimedOut(true);
+        result.setErrorMessage("none");
+        result.setTotalTests(3);
+        result.setPassedTests(2);
+        result.addFailedTest("shouldDivide");
+        result.addTestCase(testCase);
+        result.addCompilationError("Calculator.java:3: warning");
+        result.setMavenOutput("[INFO] BUILD SUCCESS");
+        result.setMavenError("[ERROR] none");
+        return result;
+    }
+
+    private static ValidationReport validationReport() {
+        ValidationReport report = new ValidationReport("REQ-1", "TEST-1");
+        report.setValidatedAt(GENERATED_AT);
+        report.setValidationCompleted(true);
+        report.setErrorMessage("none");
+        report.addCoverageIssue("division by zero is not tested");
+        report.addQualityIssue("test names are vague");
+        report.addCodeIssue("magic number");
+        report.addResultIssue("one test fails");
+        report.setImprovementSuggestions("Add a divide-by-zero test");
+        return report;
+    }
+
+    private static void recordAllStages(RunJournal journal, String requirementId) {
+        journal.record(requirementId, RunJournal.Stage.TEST, generatedTest());
+        journal.record(requirementId, RunJournal.Stage.CODE, productionCode());
+        journal.record(requirementId, RunJournal.Stage.REFACTOR, productionCode());
+        journal.record(requirementId, RunJournal.Stage.RUN, testResult());
+        journal.record(requirementId, RunJournal.Stage.VALIDATE, validationReport());
+    }
+
+    private static void assertSameStageOutputs(RunJournal journal, String requirementId) throws Exception {
+        assertSameFields(generatedTest(), journal.get(requirementId, RunJournal.Stage.TEST, GeneratedTest.class), "test");
+        assertSameFields(productionCode(), journal.get(requirementId, RunJournal.Stage.CODE, ProductionCode.class), "code");
+        assertSameFields(productionCode(), journal.get(requirementId, RunJournal.Stage.REFACTOR, ProductionCode.class), "refactor");
+        assertSameFields(testResult(), journal.get(requirementId, RunJournal.Stage.RUN, TestResult.class), "run");
+        assertSameFields(validationReport(), journal.get(requirementId, RunJournal.Stage.VALIDATE, ValidationReport.class), "validate");
+    }
+
+    /**
+     * Compare every instance field, descending into models and lists of models
+     */
+    private static void assertSameFields(Object expected, Object actual, String path) throws Exception {
+        assertNotNull(actual, path);
+        assertEquals(expected.getClass(), actual.getClass(), path);
+        for (Field field : expected.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object expectedValue = field.get(expected);
+            Object actualValue = field.get(actual);
+            String fieldPath = path + "." + field.getName();
+            if (expectedValue instanceof List<?> expectedList && actualValue instanceof List<?> actualList) {
+                assertEquals(expectedList.size(), actualList.size(), fieldPath);
+                for (int i = 0; i < expectedList.size(); i++) {
+                    assertSameValue(expectedList.get(i), actualList.get(i), fieldPath + "[" + i + "]");
+                }
+            } else {
+                assertSameValue(expectedValue, actualValue, fieldPath);
+            }
+        }
+    }
+
+    private static void assertSameValue(Object expected, Object actual, String path) throws Exception {
+        if (expected != null && expected.getClass().getPackageName().equals("demoproject.models") && !expected.getClass().isEnum()) {
+            assertSameFields(expected, actual, path);
+        } else {
+            assertEquals(expected, actual, path);
+        }
+    }
+
+    /**
+     * Check that a fixture sets every field, so the round trip covers all of them
+     */
+    private static void assertFullyPopulated(Object model, String path) throws Exception {
+        for (Field field : model.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Object value = field.get(model);
+            String fieldPath = path + "." + field.getName();
+            assertNotNull(value, fieldPath + " is not set by the fixture");
+            assertNotEquals(Boolean.FALSE, value, fieldPath + " is not set by the fixture");
+            if (value instanceof Collection<?> collection) {
+                assertFalse(collection.isEmpty(), fieldPath + " is not set by the fixture");
+                for (Object element : collection) {
+                    if (element.getClass().getPackageName().equals("demoproject.models")) {
+                        assertFullyPopulated(element, fieldPath + "[]");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should fill every field of the fixtures")
+    void shouldUseFullyPopulatedFixtures() throws Exception {
+        assertFullyPopulated(generatedTest(), "test");
+        assertFullyPopulated(productionCode(), "code");
+        assertFullyPopulated(testResult(), "run");
+        assertFullyPopulated(validationReport(), "validate");
+    }
+
+    @Test
+    @DisplayName("Should restore every stage output unchanged when a run is resumed")
+    void shouldRoundTripStageOutputsOnResume() throws Exception {
+        // Given
+        String runId;
+        try (RunJournal journal = RunJournal.start(journalDir)) {
+            runId = journal.getRunId();
+            recordAllStages(journal, "REQ-1");
+        }
+
+        // When
+        try (RunJournal resumed = RunJournal.resume(journalDir, runId)) {
+            // Then
+            assertTrue(resumed.isCompleted("REQ-1"));
+            assertFalse(resumed.isCompleted("REQ-2"));
+            assertSameStageOutputs(resumed, "REQ-1");
+        }
+    }
+
+    @Test
+    @DisplayName("Should read a journal without appending to it")
+    void shouldReadJournalReadOnly() throws Exception {
+        // Given
+        String runId;
+        try (RunJournal journal = RunJournal.start(journalDir)) {
+            runId = journal.getRunId();
+            recordAllStages(journal, "REQ-1");
+        }
+
+        // When
+        RunJournal read = RunJournal.read(journalDir, runId);
+
+        // Then
+        assertSameStageOutputs(read, "REQ-1");
+        assertThrows(IllegalStateException.class, () -> read.record("REQ-2", RunJournal.Stage.TEST, generatedTest()));
+        assertNull(RunJournal.read(journalDir, "missing-run"));
+    }
+
+    @Test
+    @DisplayName("Should copy another run's outputs into a new journal that resumes with them")
+    void shouldCopyOutputsFromAnotherRun() throws Exception {
+        // Given
+        RunJournal previous;
+        try (RunJournal journal = RunJournal.start(journalDir)) {
+            recordAllStages(journal, "REQ-1");
+            previous = RunJournal.read(journalDir, journal.getRunId());
+        }
+
+        // When
+        String runId;
+        try (RunJournal next = RunJournal.start(journalDir.resolve("next"))) {
+            runId = next.getRunId();
+            next.copyFrom(previous, "REQ-1");
+            next.copyFrom(previous, "REQ-2");
+        }
+
+        // Then
+        try (RunJournal resumed = RunJournal.resume(journalDir.resolve("next"), runId)) {
+            assertTrue(resumed.isCompleted("REQ-1"));
+            assertSameStageOutputs(resumed, "REQ-1");
+            assertNull(resumed.get("REQ-2", RunJournal.Stage.TEST, GeneratedTest.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip a line cut short by a crash and append after it on resume")
+    void shouldSkipTruncatedLine() throws Exception {
+        // Given a journal whose last line was cut off
+        String runId;
+        try (RunJournal journal = RunJournal.start(journalDir)) {
+            runId = journal.getRunId();
+            journal.record("REQ-1", RunJournal.Stage.TEST, generatedTest());
+        }
+        Path file = journalDir.resolve(runId + ".jsonl");
+        Files.writeString(file, "{\"requirement\":\"REQ-1\",\"stage\":\"CODE\",\"output\":{\"id\":", StandardOpenOption.APPEND);
+
+        // When
+        try (RunJournal resumed = RunJournal.resume(journalDir, runId)) {
+            resumed.record("REQ-1", RunJournal.Stage.CODE, productionCode());
+        }
+
+        // Then
+        RunJournal read = RunJournal.read(journalDir, runId);
+        assertSameFields(generatedTest(), read.get("REQ-1", RunJournal.Stage.TEST, GeneratedTest.class), "test");
+        assertSameFields(productionCode(), read.get("REQ-1", RunJournal.Stage.CODE, ProductionCode.class), "code");
+    }
+
+    @Test
+    @DisplayName("Should keep the journaled field names, so journals of earlier runs stay resumable")
+    void shouldKeepJournaledFieldNames() throws Exception {
+        // Given
+        String runId;
+        try (RunJournal journal = RunJournal.start(journalDir)) {
+            runId = journal.getRunId();
+            recordAllStages(journal, "REQ-1");
+        }
+
+        // When
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = Files.readAllLines(journalDir.resolve(runId + ".jsonl"), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals(fieldNames("id", "requirementId", "testName", "testClassName", "testContent", "fileName",
+                "packageName", "testFramework", "language", "testCases", "generatedAt", "generatedBy", "status",
+                "errorMessage"), outputFieldNames(objectMapper, lines.get(0)));
+        assertEquals(fieldNames("id", "requirementId", "className", "fileName", "code", "errorMessage", "status",
+                "generatedAt", "compiledAt", "compilationSuccess", "compilationErrors"), outputFieldNames(objectMapper, lines.get(1)));
+        assertEquals(fieldNames("testId", "requirementId", "startedAt", "completedAt", "success", "timedOut",
+                "errorMessage", "totalTests", "passedTests", "failedTests", "testCases", "compilationErrors",
+                "mavenOutput", "mavenError"), outputFieldNames(objectMapper, lines.get(3)));
+        assertEquals(fieldNames("requirementId", "testId", "validatedAt", "validationCompleted", "errorMessage",
+                "coverageIssues", "qualityIssues", "codeIssues", "resultIssues", "improvementSuggestions"),
+                outputFieldNames(objectMapper, lines.get(4)));
+    }
+
+    private static Set<String> fieldNames(String... names) {
+        return new TreeSet<>(List.of(names));
+    }
+
+    private static Set<String> outputFieldNames(ObjectMapper objectMapper, String line) throws Exception {
+        JsonNode output = objectMapper.readTree(line).path("output");
+        Set<String> names = new TreeSet<>();
+        output.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -0,0 +1,207 @@
+package demoproject.services;
+
+import demoproject.models.TestResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompilationCache Tests")
+class CompilationCacheTest {
+
+    private static final String RUN_SETTINGS = "backend=worker";
+
+    @TempDir
+    Path cacheDir;
+
+    /**
+     * An entry holding one class of the given size, about 120 bytes on disk for 100 class bytes
+     */
+    private static CompilationCache.Entry entry(String className, int classBytes) {
+        return new CompilationCache.Entry(new InProcessCompiler.CompilationResult(
+                true, List.of(), Map.of(className, new byte[classBytes])));
+    }
+
+    private static TestResult run(int total, String... failed) {
+        TestResult result = new TestResult("T-1", "REQ-1");
+        result.setTotalTests(total);
+        result.setPassedTests(total - failed.length);
+        for (String test : failed) {
+            result.addFailedTest(test);
+        }
+        return result;
+    }
+
+    private static CompilationCache.Entry roundTrip(CompilationCache.Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            entry.writeTo(out);
+        }
+        return CompilationCache.Entry.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private List<Path> filesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should build the same key for the same sources in any order and a different one when anything changes")
+    void shouldBuildStableKeys() {
+        String key = CompilationCache.key("classpath", Map.of("A.java", "class A {}", "B.java", "class B {}"));
+
+        assertEquals(key, CompilationCache.key("classpath", Map.of("B.java", "class B {}", "A.java", "class A {}")));
+        assertNotEquals(key, CompilationCache.key("other-classpath", Map.of("A.java", "class A {}", "B.java", "class B {}")));
+        assertNotEquals(key, CompilationCache.key("classpath", Map.of("A.java", "class A { }", "B.java", "class B {}")));
+        assertNotEquals(CompilationCache.key("classpath", Map.of("A.java", "x")),
+                CompilationCache.key("classpath", Map.of("A.jav", "ax")));
+    }
+
+    @Test
+    @DisplayName("Should read back a written entry with its classes, errors and test run")
+    void shouldRoundTripEntries() throws IOException {
+        // Given
+        byte[] classBytes = {(byte) 0xCA, (byte) 0xFE, 0, 1};
+        CompilationCache.Entry failed = new CompilationCache.Entry(new InProcessCompiler.CompilationResult(
+                false, List.of("Calculator.java:3: error: ';' expected", "ünïcode"), Map.of()));
+        CompilationCache.Entry compiled = new CompilationCache.Entry(new InProcessCompiler.CompilationResult(
+                true, List.of(), Map.of("generated.code.Calculator", classBytes)))
+                .withRun(RUN_SETTINGS, run(3, "CalculatorTest.shouldDivide"));
+
+        // When
+        CompilationCache.Entry readFailed = roundTrip(failed);
+        CompilationCache.Entry readCompiled = roundTrip(compiled);
+
+        // Then
+        assertFalse(readFailed.getCompilation().isSuccess());
+        assertEquals(failed.getCompilation().getErrors(), readFailed.getCompilation().getErrors());
+        assertTrue(readFailed.getCompilation().getClasses().isEmpty());
+        assertFalse(readFailed.hasRun(RUN_SETTINGS));
+
+        assertTrue(readCompiled.getCompilation().isSuccess());
+        assertArrayEquals(classBytes, readCompiled.getCompilation().getClasses().get("generated.code.Calculator"));
+        assertTrue(readCompiled.hasRun(RUN_SETTINGS));
+        TestResult applied = new TestResult("T-2", "REQ-1");
+        readCompiled.applyRun(applied);
+        assertEquals(3, applied.getTotalTests());
+        assertEquals(2, applied.getPassedTests());
+        assertEquals(List.of("CalculatorTest.shouldDivide"), applied.getFailedTests());
+    }
+
+    @Test
+    @DisplayName("Should reject an entry written in another format version")
+    void shouldRejectOtherFormatVersions() {
+        // Given
+        byte[] bytes = {0, 0, 0, 99};
+
+        // When / Then
+        assertThrows(IOException.class,
+                () -> CompilationCache.Entry.readFrom(new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    @DisplayName("Should only reuse a test run made with the same run settings")
+    void shouldMatchRunSettings() {
+        // Given
+        CompilationCache.Entry compiled = entry("A", 10);
+
+        // When
+        CompilationCache.Entry withRun = compiled.withRun(RUN_SETTINGS, run(1));
+
+        // Then
+        assertFalse(compiled.hasRun(RUN_SETTINGS));
+        assertFalse(compiled.hasRun(null));
+        assertTrue(withRun.hasRun(RUN_SETTINGS));
+        assertFalse(withRun.hasRun("backend=maven"));
+    }
+
+    @Test
+    @DisplayName("Should answer from memory, then from disk after reopening, counting hits and misses")
+    void shouldServeMemoryThenDisk() {
+        // Given
+        CompilationCache cache = new CompilationCache(cacheDir, 10, 1_000_000);
+        cache.putRun("key", entry("A", 10), RUN_SETTINGS, run(2));
+
+        // When
+        CompilationCache.Entry fromMemory = cache.get("key");
+        CompilationCache reopened = new CompilationCache(cacheDir, 10, 1_000_000);
+        CompilationCache.Entry fromDisk = reopened.get("key");
+        CompilationCache.Entry missing = reopened.get("other");
+
+        // Then
+        assertSame(fromMemory, cache.get("key"));
+        assertNotNull(fromDisk);
+        assertTrue(fromDisk.hasRun(RUN_SETTINGS), "the test run is persisted with the compilation");
+        assertNull(missing);
+        assertEquals("Compilation cache: 2 hits, 0 misses, 0 test runs reused", cache.getSummary());
+        assertEquals("Compilation cache: 1 hits, 1 misses, 0 test runs reused", reopened.getSummary());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used disk entries to stay within the size bound")
+    void shouldEvictLeastRecentlyUsedDiskEntries() throws Exception {
+        // Given entries of about 120 bytes and room for three
+        CompilationCache cache = new CompilationCache(cacheDir, 0, 400);
+        cache.put("a", entry("A", 100));
+        Thread.sleep(20);
+        cache.put("b", entry("B", 100));
+        Thread.sleep(20);
+        cache.put("c", entry("C", 100));
+        Thread.sleep(20);
+        assertNotNull(cache.get("a"), "reading an entry makes it recently used");
+        Thread.sleep(20);
+
+        // When
+        cache.put("d", entry("D", 100));
+
+        // Then
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    @DisplayName("Should stay within its size bound and leave no temporary files under concurrent writes")
+    void shouldStayBoundedUnderConcurrentWrites() throws IOException {
+        // Given
+        CompilationCache cache = new CompilationCache(cacheDir, 4, 5_000);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                String key = "key-" + i;
+                writes.add(CompletableFuture.runAsync(() -> {
+                    cache.put(key, entry("A", 100));
+                    cache.get(key);
+                }, executor));
+            }
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        }
+        cache.put("last", entry("A", 100));
+
+        // Then
+        List<Path> files = filesIn(cacheDir);
+        assertTrue(files.stream().noneMatch(file -> file.toString().endsWith(".tmp")));
+        long size = files.stream().mapToLong(file -> file.toFile().length()).sum();
+        assertTrue(size <= 5_000, "disk tier holds " + size + " bytes");
+    }
+}
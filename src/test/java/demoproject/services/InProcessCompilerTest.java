@@ -0,0 +1,165 @@
+package demoproject.services;
+
+import demoproject.config.AgentConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InProcessCompiler Tests")
+class InProcessCompilerTest {
+
+    private static final String TEST_SOURCE = """
+            package generated.code;
+
+            import org.junit.jupiter.api.Test;
+            import org.junit.jupiter.params.ParameterizedTest;
+            import org.junit.jupiter.params.provider.ValueSource;
+
+            import static org.junit.jupiter.api.Assertions.*;
+
+            public class CalculatorTest {
+                @Test
+                void shouldAdd() {
+                    assertEquals(5, new Calculator().add(2, 3));
+                }
+
+                @ParameterizedTest
+                @ValueSource(ints = {1, 2})
+                void shouldKeepPositive(int value) {
+                    assertTrue(new Calculator().add(value, 0) > 0);
+                }
+            }
+            """;
+
+    @TempDir
+    Path repository;
+
+    private InProcessCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        compiler = InProcessCompiler.create(new AgentConfig());
+        assertNotNull(compiler, "JUnit 5 must be in the local Maven repository");
+    }
+
+    @AfterEach
+    void tearDown() {
+        compiler.close();
+    }
+
+    private static String calculator(String body) {
+        return "package generated.code;\n\nimport java.util.List;\n\npublic class Calculator {\n"
+                + "    public int add(int a, int b) {\n        " + body + "\n    }\n}\n";
+    }
+
+    private void writeArtifact(String group, String artifact, String version, String dependencies) throws IOException {
+        Path directory = repository.resolve(group.replace('.', '/')).resolve(artifact).resolve(version);
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(artifact + "-" + version + ".pom"),
+                "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                        + "  <dependencyManagement><dependencies><dependency>\n"
+                        + "    <groupId>managed</groupId><artifactId>bom</artifactId><version>1</version>\n"
+                        + "  </dependency></dependencies></dependencyManagement>\n"
+                        + "  <dependencies>" + dependencies + "</dependencies>\n"
+                        + "</project>\n");
+        Files.writeString(directory.resolve(artifact + "-" + version + ".jar"), "");
+    }
+
+    private static String dependency(String group, String artifact, String version, String extra) {
+        return "<dependency><groupId>" + group + "</groupId><artifactId>" + artifact + "</artifactId>"
+                + "<version>" + version + "</version>" + extra + "</dependency>";
+    }
+
+    @Test
+    @DisplayName("Should compile generated code against JUnit 5, as the generated pom declares it")
+    void shouldCompileAgainstTestDependencies() {
+        // When
+        InProcessCompiler.CompilationResult result = compiler.compile(Map.of(
+                "Calculator.java", calculator("return a + b;"),
+                "CalculatorTest.java", TEST_SOURCE));
+
+        // Then
+        assertTrue(result.isSuccess(), () -> String.join("\n", result.getErrors()));
+        assertTrue(result.getClasses().containsKey("generated.code.CalculatorTest"));
+    }
+
+    @Test
+    @DisplayName("Should reject APIs newer than the generated project's Java release")
+    void shouldCompileForProjectRelease() {
+        // When
+        InProcessCompiler.CompilationResult result = compiler.compile(Map.of(
+                "Calculator.java", calculator("return List.of(a, b).reversed().get(0) + b;")));
+
+        // Then
+        assertFalse(result.isSuccess(), "List.reversed() was added after Java " + GeneratedProject.JAVA_RELEASE);
+        assertTrue(compiler.getFingerprint().contains("--release\n" + GeneratedProject.JAVA_RELEASE));
+    }
+
+    @Test
+    @DisplayName("Should not let generated code use the agent's own dependencies")
+    void shouldNotExposeAgentClasspath() {
+        // When
+        InProcessCompiler.CompilationResult result = compiler.compile(Map.of(
+                "Calculator.java", "package generated.code;\n\n"
+                        + "import com.fasterxml.jackson.databind.ObjectMapper;\n\n"
+                        + "public class Calculator {\n    private final ObjectMapper mapper = new ObjectMapper();\n}\n"));
+
+        // Then
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrors().stream().anyMatch(error -> error.contains("com.fasterxml.jackson")));
+    }
+
+    @Test
+    @DisplayName("Should resolve compile-scope dependencies transitively, like Maven's test classpath")
+    void shouldResolveCompileScopeDependencies() throws IOException {
+        // Given
+        writeArtifact("org.example", "aggregate", "1.0",
+                dependency("org.example", "api", "1.0", "")
+                        + dependency("org.example", "engine", "1.0", "<scope>runtime</scope>")
+                        + dependency("org.example", "extras", "1.0", "<optional>true</optional>")
+                        + dependency("org.example", "managed", "${managed.version}", ""));
+        writeArtifact("org.example", "api", "1.0",
+                dependency("org.example", "commons", "1.0", "<scope>compile</scope>")
+                        + dependency("org.example", "aggregate", "1.0", "")
+                        + dependency("org.example", "testing", "1.0", "<scope>test</scope>"));
+        writeArtifact("org.example", "commons", "1.0", "");
+        writeArtifact("org.example", "engine", "1.0", "");
+
+        // When
+        List<Path> jars = InProcessCompiler.resolveDependencies(repository, "org.example:aggregate:1.0");
+
+        // Then
+        assertEquals(List.of("aggregate-1.0.jar", "api-1.0.jar", "commons-1.0.jar"),
+                jars.stream().map(jar -> jar.getFileName().toString()).toList());
+    }
+
+    @Test
+    @DisplayName("Should fail to resolve a test dependency missing from the repository")
+    void shouldReportMissingTestDependency() {
+        assertNull(InProcessCompiler.resolveDependencies(repository, "org.example:missing:1.0"));
+    }
+
+    @Test
+    @DisplayName("Should declare the same test dependency and release in the generated pom")
+    void shouldShareDefinitionWithGeneratedPom() {
+        // When
+        String pom = GeneratedProject.pom("req-1");
+
+        // Then
+        String[] dependency = GeneratedProject.TEST_DEPENDENCY.split(":");
+        assertTrue(pom.contains("<artifactId>req-1</artifactId>"));
+        assertTrue(pom.contains("<maven.compiler.release>" + GeneratedProject.JAVA_RELEASE + "</maven.compiler.release>"));
+        assertTrue(pom.contains("<groupId>" + dependency[0] + "</groupId>\n      <artifactId>" + dependency[1]
+                + "</artifactId>\n      <version>" + dependency[2] + "</version>"));
+    }
+}
@@ -0,0 +1,108 @@
+package demoproject.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmCallExecutor Hedging Tests")
+class LlmCallExecutorTest {
+
+    private final ScheduledExecutorService responses = Executors.newScheduledThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        responses.shutdownNow();
+    }
+
+    private CompletableFuture<String> respondAfter(long millis, String value) {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        responses.schedule(() -> response.complete(value), millis, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    /**
+     * Build an executor with hedging enabled and a p95 latency of about 20 ms
+     */
+    private LlmCallExecutor warmedUpExecutor(LlmRateLimiter rateLimiter) {
+        LlmCallExecutor executor = new LlmCallExecutor(rateLimiter,
+                new LlmRetryPolicy(3, Duration.ofMillis(300), Duration.ofMillis(300)), true);
+        for (int i = 0; i < 25; i++) {
+            executor.executeAsync(1, () -> respondAfter(20, "warm-up")).join();
+        }
+        assertNotNull(executor.getHedgeDelay());
+        return executor;
+    }
+
+    @Test
+    @DisplayName("Should answer a slow call from its hedge and cancel the losing request")
+    void shouldCancelLosingRequest() throws Exception {
+        // Given
+        LlmCallExecutor executor = warmedUpExecutor(new LlmRateLimiter(0, 0, 4));
+        long hedgesBefore = executor.getHedgesSent();
+        long hedgesWonBefore = executor.getHedgesWon();
+        List<CompletableFuture<String>> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = executor.executeAsync(1, () -> {
+            CompletableFuture<String> response = calls.getAndIncrement() == 0
+                    ? respondAfter(2000, "primary") : respondAfter(10, "hedge");
+            sent.add(response);
+            return response;
+        }).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("hedge", result);
+        assertEquals(hedgesBefore + 1, executor.getHedgesSent());
+        assertEquals(hedgesWonBefore + 1, executor.getHedgesWon());
+        assertTrue(sent.get(0).isCancelled(), "the primary request should be cancelled");
+    }
+
+    @Test
+    @DisplayName("Should not hedge a call while it waits for a rate limiter permit")
+    void shouldNotHedgeWhileQueued() throws Exception {
+        // Given
+        LlmRateLimiter rateLimiter = new LlmRateLimiter(0, 0, 1);
+        LlmCallExecutor executor = warmedUpExecutor(rateLimiter);
+        long hedgesBefore = executor.getHedgesSent();
+        LlmRateLimiter.Permit held = rateLimiter.acquireBlocking(1);
+        responses.schedule(held::onSuccess, 300, TimeUnit.MILLISECONDS);
+
+        // When
+        String result = executor.executeAsync(1, () -> respondAfter(5, "queued")).join();
+
+        // Then
+        assertEquals("queued", result);
+        assertEquals(hedgesBefore, executor.getHedgesSent());
+    }
+
+    @Test
+    @DisplayName("Should not hedge a call during its retry backoff")
+    void shouldNotHedgeAcrossRetries() {
+        // Given
+        LlmCallExecutor executor = warmedUpExecutor(new LlmRateLimiter(0, 0, 4));
+        long hedgesBefore = executor.getHedgesSent();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = executor.executeAsync(1, () -> attempts.getAndIncrement() == 0
+                ? CompletableFuture.failedFuture(new LlmApiException("bad gateway", 502, null))
+                : respondAfter(5, "retried")).join();
+
+        // Then
+        assertEquals("retried", result);
+        assertEquals(2, attempts.get());
+        assertEquals(hedgesBefore, executor.getHedgesSent());
+    }
+}
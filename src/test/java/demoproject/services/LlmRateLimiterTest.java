@@ -0,0 +1,193 @@
+package demoproject.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmRateLimiter Tests")
+class LlmRateLimiterTest {
+
+    @Test
+    @DisplayName("Should halve the concurrency limit when throttled, but only once per burst")
+    void shouldHalveConcurrencyLimitOncePerBurst() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 8);
+        LlmRateLimiter.Permit first = limiter.acquireBlocking(1);
+        LlmRateLimiter.Permit second = limiter.acquireBlocking(1);
+
+        // When
+        first.onThrottled(Duration.ZERO);
+        second.onThrottled(Duration.ZERO);
+
+        // Then
+        assertEquals(4, limiter.getConcurrencyLimit(), "calls granted before the back-off carry no new information");
+
+        // When a call granted after the back-off is throttled too
+        limiter.acquireBlocking(1).onThrottled(Duration.ZERO);
+
+        // Then
+        assertEquals(2, limiter.getConcurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("Should never halve the concurrency limit below one")
+    void shouldKeepConcurrencyLimitAtLeastOne() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 2);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(1);
+            limiter.acquireBlocking(1).onThrottled(Duration.ZERO);
+        }
+
+        // Then
+        assertEquals(1, limiter.getConcurrencyLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should grow the concurrency limit by one per window of successful calls")
+    void shouldIncreaseConcurrencyLimitAdditively() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 8);
+        limiter.acquireBlocking(1).onThrottled(Duration.ZERO);
+        assertEquals(4, limiter.getConcurrencyLimit());
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            limiter.acquireBlocking(1).onSuccess();
+        }
+
+        // Then
+        assertEquals(4, limiter.getConcurrencyLimit(), "+1/limit per success stays below the next step");
+        limiter.acquireBlocking(1).onSuccess();
+        assertEquals(5, limiter.getConcurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("Should queue calls beyond the concurrency limit until a permit is released")
+    void shouldQueueCallsBeyondConcurrencyLimit() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 1);
+        LlmRateLimiter.Permit held = limiter.acquireBlocking(1);
+
+        // When
+        CompletableFuture<LlmRateLimiter.Permit> queued = limiter.acquire(1);
+
+        // Then
+        assertFalse(queued.isDone());
+        held.onSuccess();
+        assertNotNull(queued.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should pause every call for the server's Retry-After")
+    void shouldPauseForRetryAfter() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 4);
+        limiter.acquireBlocking(1).onThrottled(Duration.ofMillis(300));
+
+        // When
+        long start = System.nanoTime();
+        limiter.acquire(1).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    @DisplayName("Should admit a burst of a tenth of the request budget, then refill continuously")
+    void shouldRefillRequestBucket() throws Exception {
+        // Given 600 requests per minute: bursts of 60, then one every 100 ms
+        LlmRateLimiter limiter = new LlmRateLimiter(600, 0, 100);
+        for (int i = 0; i < 60; i++) {
+            CompletableFuture<LlmRateLimiter.Permit> permit = limiter.acquire(1);
+            assertTrue(permit.isDone(), "request " + i + " is within the burst");
+            permit.join().onSuccess();
+        }
+
+        // When
+        long start = System.nanoTime();
+        CompletableFuture<LlmRateLimiter.Permit> next = limiter.acquire(1);
+
+        // Then
+        assertFalse(next.isDone(), "the bucket is empty");
+        next.get(2, TimeUnit.SECONDS).onSuccess();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    @DisplayName("Should wait for the token bucket to refill a large call's estimate")
+    void shouldRefillTokenBucket() throws Exception {
+        // Given 6000 tokens per minute: bursts of 600, refilled at 100 per second
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 6000, 4);
+        limiter.acquire(600).get(1, TimeUnit.SECONDS).onSuccess();
+
+        // When
+        long start = System.nanoTime();
+        CompletableFuture<LlmRateLimiter.Permit> next = limiter.acquire(50);
+
+        // Then
+        assertFalse(next.isDone());
+        next.get(3, TimeUnit.SECONDS).onSuccess();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(400));
+    }
+
+    @Test
+    @DisplayName("Should take an interrupted caller out of the queue without losing capacity")
+    void shouldDequeueInterruptedCaller() throws Exception {
+        // Given
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 1);
+        LlmRateLimiter.Permit held = limiter.acquireBlocking(1);
+
+        // When the queued caller is interrupted
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> limiter.acquireBlocking(1));
+        held.onSuccess();
+
+        // Then
+        assertEquals(0, limiter.getInFlight(), "no permit was granted to the interrupted caller");
+        CompletableFuture<LlmRateLimiter.Permit> next = limiter.acquire(1);
+        assertTrue(next.isDone());
+        next.join().onSuccess();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should release a permit granted while its caller was being interrupted")
+    void shouldReleasePermitGrantedToInterruptedCaller() throws Exception {
+        LlmRateLimiter limiter = new LlmRateLimiter(0, 0, 1);
+        for (int i = 0; i < 200; i++) {
+            // Given a caller queued behind a held permit
+            LlmRateLimiter.Permit held = limiter.acquireBlocking(1);
+            AtomicReference<LlmRateLimiter.Permit> granted = new AtomicReference<>();
+            Thread caller = new Thread(() -> {
+                try {
+                    granted.set(limiter.acquireBlocking(1));
+                } catch (InterruptedException e) {
+                    // Expected when the interrupt wins the race
+                }
+            });
+            caller.start();
+
+            // When the permit is handed over while the caller is interrupted
+            held.onSuccess();
+            caller.interrupt();
+            caller.join();
+            if (granted.get() != null) {
+                granted.get().onSuccess();
+            }
+
+            // Then
+            assertEquals(0, limiter.getInFlight(), "iteration " + i);
+        }
+        assertEquals(1, limiter.getConcurrencyLimit());
+    }
+}
@@ -0,0 +1,129 @@
+package demoproject.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmResponseCache Tests")
+class LlmResponseCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private List<Path> filesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should build the same key for the same request and a different one when any part changes")
+    void shouldBuildStableKeys() {
+        String key = LlmResponseCache.key("model", "temperature=0.2", "prompt");
+
+        assertEquals(key, LlmResponseCache.key("model", "temperature=0.2", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("other-model", "temperature=0.2", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("model", "temperature=0.7", "prompt"));
+        assertNotEquals(key, LlmResponseCache.key("model", "temperature=0.2", "other prompt"));
+        assertNotEquals(LlmResponseCache.key("ab", "c", "p"), LlmResponseCache.key("a", "bc", "p"));
+    }
+
+    @Test
+    @DisplayName("Should answer from memory, then from disk once the memory tier has evicted the entry")
+    void shouldServeMemoryThenDisk() {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(cacheDir, 1, 1_000_000);
+        cache.put("first", "response one");
+        cache.put("second", "response two");
+
+        // When
+        String fromMemory = cache.get("second");
+        String fromDisk = cache.get("first");
+        String missing = cache.get("third");
+
+        // Then
+        assertEquals("response two", fromMemory);
+        assertEquals("response one", fromDisk);
+        assertNull(missing);
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getDiskHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Should reuse entries persisted by an earlier run")
+    void shouldReuseEntriesAcrossInstances() {
+        // Given
+        new LlmResponseCache(cacheDir, 10, 1_000_000).put("key", "persisted response");
+
+        // When
+        LlmResponseCache reopened = new LlmResponseCache(cacheDir, 10, 1_000_000);
+
+        // Then
+        assertEquals("persisted response", reopened.get("key"));
+        assertEquals(1, reopened.getDiskHits());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used disk entries to stay within the size bound")
+    void shouldEvictLeastRecentlyUsedDiskEntries() throws Exception {
+        // Given entries of 100 bytes and room for three
+        LlmResponseCache cache = new LlmResponseCache(cacheDir, 0, 300);
+        cache.put("a", "a".repeat(100));
+        Thread.sleep(20);
+        cache.put("b", "b".repeat(100));
+        Thread.sleep(20);
+        cache.put("c", "c".repeat(100));
+        Thread.sleep(20);
+        assertNotNull(cache.get("a"), "reading an entry makes it recently used");
+        Thread.sleep(20);
+
+        // When
+        cache.put("d", "d".repeat(100));
+
+        // Then
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("d"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Should stay within its size bound and leave no temporary files under concurrent writes")
+    void shouldStayBoundedUnderConcurrentWrites() throws IOException {
+        // Given
+        LlmResponseCache cache = new LlmResponseCache(cacheDir, 4, 5_000);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                String key = "key-" + i;
+                writes.add(CompletableFuture.runAsync(() -> {
+                    cache.put(key, "x".repeat(100));
+                    cache.get(key);
+                }, executor));
+            }
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        }
+        cache.put("last", "x".repeat(100));
+
+        // Then
+        List<Path> files = filesIn(cacheDir);
+        assertTrue(files.stream().noneMatch(file -> file.toString().endsWith(".tmp")));
+        long size = files.stream().mapToLong(file -> file.toFile().length()).sum();
+        assertTrue(size <= 5_000, "disk tier holds " + size + " bytes");
+    }
+}
@@ -0,0 +1,86 @@
+package demoproject.services;
+
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmRetryPolicy Tests")
+class LlmRetryPolicyTest {
+
+    private final LlmRetryPolicy policy = new LlmRetryPolicy(4, Duration.ofMillis(100), Duration.ofMillis(1000));
+
+    @ParameterizedTest
+    @ValueSource(ints = {408, 429, 500, 502, 503, 504})
+    @DisplayName("Should retry transient HTTP statuses")
+    void shouldRetryTransientStatuses(int statusCode) {
+        assertTrue(policy.isRetryable(new LlmApiException("transient", statusCode, null)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {400, 401, 403, 404, 422})
+    @DisplayName("Should not retry client errors")
+    void shouldNotRetryClientErrors(int statusCode) {
+        assertFalse(policy.isRetryable(new LlmApiException("client error", statusCode, null)));
+    }
+
+    @Test
+    @DisplayName("Should retry connection failures and read timeouts, but not interrupts")
+    void shouldClassifyIoFailures() {
+        assertTrue(policy.isRetryable(new ConnectException("refused")));
+        assertTrue(policy.isRetryable(new NoHttpResponseException("no response")));
+        assertTrue(policy.isRetryable(new SocketTimeoutException("read timed out")));
+        assertTrue(policy.isRetryable(new IOException("Connection reset by peer")));
+        assertFalse(policy.isRetryable(new InterruptedIOException("interrupted")));
+        assertFalse(policy.isRetryable(new IOException("malformed response")));
+        assertFalse(policy.isRetryable(new IllegalStateException("bug")));
+    }
+
+    @Test
+    @DisplayName("Should look through the CompletionException of an async call")
+    void shouldUnwrapCompletionException() {
+        assertTrue(policy.isRetryable(new CompletionException(new LlmApiException("busy", 503, null))));
+        assertFalse(policy.isRetryable(new CompletionException(new LlmApiException("bad", 400, null))));
+    }
+
+    @Test
+    @DisplayName("Should jitter each delay between zero and the exponential ceiling, capped at the max delay")
+    void shouldKeepJitteredDelayWithinBounds() {
+        long[] ceilings = {100, 200, 400, 800, 1000, 1000};
+        for (int i = 0; i < ceilings.length; i++) {
+            int attempt = i + 2;
+            long max = 0;
+            for (int sample = 0; sample < 500; sample++) {
+                long delay = policy.delayBefore(attempt, null).toMillis();
+                assertTrue(delay >= 0 && delay <= ceilings[i],
+                        "attempt " + attempt + " delay " + delay + " exceeds " + ceilings[i]);
+                max = Math.max(max, delay);
+            }
+            assertTrue(max > ceilings[i] / 2, "full jitter should use the whole range for attempt " + attempt);
+        }
+    }
+
+    @Test
+    @DisplayName("Should never wait less than the server's Retry-After")
+    void shouldHonourRetryAfter() {
+        for (int sample = 0; sample < 100; sample++) {
+            assertTrue(policy.delayBefore(2, Duration.ofSeconds(5)).toMillis() >= 5000);
+        }
+    }
+
+    @Test
+    @DisplayName("Should allow at least one attempt")
+    void shouldAllowAtLeastOneAttempt() {
+        assertEquals(1, new LlmRetryPolicy(0, Duration.ofMillis(100), Duration.ofMillis(1000)).getMaxAttempts());
+    }
+}
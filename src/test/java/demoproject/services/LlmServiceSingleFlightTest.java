@@ -0,0 +1,114 @@
+package demoproject.services;
+
+import demoproject.config.AgentConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LlmService Single-Flight Tests")
+class LlmServiceSingleFlightTest {
+
+    private static final String PROMPT = "Class name: Calculator\nPackage: generated.code";
+
+    private LlmStubServer stub;
+    private LlmHttpTransport transport;
+    private LlmService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AgentConfig config = new AgentConfig();
+        config.setLlmCacheEnabled(false);
+        config.setLlmHedgingEnabled(false);
+        config.setLlmStubLatencyDistribution("fixed");
+        config.setLlmStubLatencyMeanMs(400);
+        stub = LlmStubServer.startFor(config);
+        transport = new LlmHttpTransport(config);
+        service = new LlmService(config, transport);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+        stub.stop();
+    }
+
+    @Test
+    @DisplayName("Should send one request for identical blocking calls in flight together")
+    void shouldCoalesceBlockingCalls() {
+        // Given
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        // When
+        try (ExecutorService callers = Executors.newFixedThreadPool(6)) {
+            for (int i = 0; i < 6; i++) {
+                calls.add(CompletableFuture.supplyAsync(() -> service.generateCode(PROMPT), callers));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        }
+
+        // Then
+        assertEquals(1, stub.getRequestCount());
+        assertEquals(5, service.getCoalescedCalls());
+        assertEquals(1, calls.stream().map(CompletableFuture::join).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should send one request for identical async calls in flight together")
+    void shouldCoalesceAsyncCalls() {
+        // Given
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            calls.add(service.generateCodeAsync(PROMPT));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertEquals(1, stub.getRequestCount());
+        assertEquals(5, service.getCoalescedCalls());
+        assertEquals(1, calls.stream().map(CompletableFuture::join).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should deregister an async flight before completing it, so a follow-up call starts afresh")
+    void shouldDeregisterAsyncFlightBeforeCompletion() {
+        // When a continuation of the flight repeats the call as soon as it completes
+        String repeated = service.generateCodeAsync(PROMPT)
+                .thenCompose(first -> service.generateCodeAsync(PROMPT))
+                .join();
+
+        // Then
+        assertNotNull(repeated);
+        assertEquals(2, stub.getRequestCount());
+        assertEquals(0, service.getCoalescedCalls());
+    }
+
+    @Test
+    @DisplayName("Should deregister a blocking flight before completing it, so a follow-up call starts afresh")
+    void shouldDeregisterBlockingFlightBeforeCompletion() throws Exception {
+        // Given a blocking call in flight
+        CompletableFuture<String> blocking = CompletableFuture.supplyAsync(() -> service.generateCode(PROMPT));
+        Thread.sleep(150);
+
+        // When a joined caller repeats the call as soon as the flight completes, on the completing thread
+        CompletableFuture<String> repeated = service.generateCodeAsync(PROMPT)
+                .thenCompose(first -> service.generateCodeAsync(PROMPT));
+        blocking.join();
+        repeated.join();
+
+        // Then
+        assertEquals(1, service.getCoalescedCalls(), "only the first async call joined the blocking flight");
+        assertEquals(2, stub.getRequestCount());
+    }
+}
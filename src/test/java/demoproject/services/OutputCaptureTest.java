@@ -0,0 +1,102 @@
+package demoproject.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OutputCapture Tests")
+class OutputCaptureTest {
+
+    private static List<String> consume(OutputCapture capture, String output) throws IOException {
+        List<String> seen = new ArrayList<>();
+        capture.consume(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), seen::add);
+        return seen;
+    }
+
+    private static String lines(int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+    @Test
+    @DisplayName("Should keep the head and tail and count the lines omitted between them")
+    void shouldKeepHeadAndTail() throws IOException {
+        // Given
+        OutputCapture capture = new OutputCapture(3, 2);
+
+        // When
+        List<String> seen = consume(capture, lines(1, 10));
+
+        // Then
+        assertEquals(10, capture.getTotalLines());
+        assertEquals(10, seen.size(), "the listener sees every line");
+        assertEquals(lines(1, 3) + "... 5 lines omitted ...\n" + lines(9, 10), capture.getText());
+    }
+
+    @Test
+    @DisplayName("Should keep all of a short output without an omitted marker")
+    void shouldKeepShortOutput() throws IOException {
+        // Given
+        OutputCapture capture = new OutputCapture(3, 2);
+
+        // When
+        consume(capture, lines(1, 5));
+
+        // Then
+        assertEquals(lines(1, 5), capture.getText());
+    }
+
+    @Test
+    @DisplayName("Should cut overlong lines and mark them")
+    void shouldTruncateLongLines() throws IOException {
+        // Given
+        OutputCapture capture = new OutputCapture(10, 10);
+        String exact = "e".repeat(OutputCapture.MAX_LINE_LENGTH);
+
+        // When
+        List<String> seen = consume(capture, "x".repeat(50_000) + "\n" + exact + "\r\nshort\n");
+
+        // Then
+        assertEquals(3, seen.size());
+        assertEquals("x".repeat(OutputCapture.MAX_LINE_LENGTH) + "...", seen.get(0));
+        assertEquals(exact, seen.get(1), "a line of exactly the limit is kept whole");
+        assertEquals("short", seen.get(2));
+    }
+
+    @Test
+    @DisplayName("Should strip carriage returns and emit a final line without a newline")
+    void shouldHandleCarriageReturnsAndFinalLine() throws IOException {
+        // Given
+        OutputCapture capture = new OutputCapture(10, 10);
+
+        // When
+        List<String> seen = consume(capture, "[INFO] one\r\n[INFO] two\r\n[INFO] last");
+
+        // Then
+        assertEquals(List.of("[INFO] one", "[INFO] two", "[INFO] last"), seen);
+        assertEquals(3, capture.getTotalLines());
+    }
+
+    @Test
+    @DisplayName("Should count lines without keeping them when no tail is wanted")
+    void shouldKeepHeadOnly() throws IOException {
+        // Given
+        OutputCapture capture = new OutputCapture(2, 0);
+
+        // When
+        consume(capture, lines(1, 4));
+
+        // Then
+        assertEquals(lines(1, 2) + "... 2 lines omitted ...\n", capture.getText());
+    }
+}
@@ -0,0 +1,109 @@
+package demoproject.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PromptBudget Tests")
+class PromptBudgetTest {
+
+    private static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    private static String javaClass(int methods) {
+        StringBuilder source = new StringBuilder("package generated.code;\n\npublic class CalculatorService {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("    public int compute").append(i).append("(int value) {\n")
+                    .append("        int result = value * ").append(i).append(";\n")
+                    .append("        if (result > 100) {\n")
+                    .append("            result = result - 100;\n")
+                    .append("        }\n")
+                    .append("        return result;\n")
+                    .append("    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    @Test
+    @DisplayName("Should leave inputs unchanged when the budget is unlimited")
+    void shouldLeaveInputUnchangedWhenUnlimited() {
+        // Given
+        PromptBudget budget = new PromptBudget(0, PromptBudgetTest::estimateTokens);
+        String input = "x".repeat(100_000);
+
+        // When / Then
+        assertSame(input, budget.fit(input, "fixed"));
+        assertTrue(budget.fits(input, "fixed"));
+        assertNull(budget.fit(null, "fixed"));
+    }
+
+    @Test
+    @DisplayName("Should leave an input that fits unchanged")
+    void shouldLeaveFittingInputUnchanged() {
+        // Given
+        PromptBudget budget = new PromptBudget(1000, PromptBudgetTest::estimateTokens);
+        String input = javaClass(2);
+
+        // When / Then
+        assertTrue(budget.fits(input, "fixed part"));
+        assertSame(input, budget.fit(input, "fixed part"));
+    }
+
+    @Test
+    @DisplayName("Should outline oversized Java source, keeping signatures and eliding method bodies")
+    void shouldOutlineOversizedJava() {
+        // Given
+        String source = javaClass(40);
+        PromptBudget budget = new PromptBudget(estimateTokens(source) / 2, PromptBudgetTest::estimateTokens);
+
+        // When
+        String fitted = budget.fit(source, "");
+
+        // Then
+        assertFalse(budget.fits(source, ""));
+        assertTrue(estimateTokens(fitted) <= budget.getMaxPromptTokens());
+        assertTrue(fitted.contains("public class CalculatorService {"));
+        assertTrue(fitted.contains("public int compute0(int value) {"));
+        assertTrue(fitted.contains("public int compute39(int value) {"));
+        assertTrue(fitted.contains("// ... body omitted"));
+        assertFalse(fitted.contains("result - 100"));
+        assertFalse(fitted.contains("characters omitted"), "the outline fits, so nothing is truncated");
+    }
+
+    @Test
+    @DisplayName("Should truncate oversized text in the middle, keeping its head and tail")
+    void shouldTruncateOversizedText() {
+        // Given
+        String text = "HEAD " + "lorem ipsum ".repeat(2000) + " TAIL";
+        PromptBudget budget = new PromptBudget(300, PromptBudgetTest::estimateTokens);
+
+        // When
+        String fitted = budget.fit(text, "");
+
+        // Then
+        assertTrue(fitted.length() <= 300 * 4);
+        assertTrue(fitted.startsWith("HEAD "));
+        assertTrue(fitted.endsWith(" TAIL"));
+        assertTrue(fitted.contains("characters omitted to fit the prompt budget"));
+    }
+
+    @Test
+    @DisplayName("Should fit the input into what the fixed part leaves, shared among all inputs")
+    void shouldShareRemainingBudgetAmongInputs() {
+        // Given
+        String fixedPart = "f".repeat(400);                // 100 tokens
+        String input = "lorem ipsum ".repeat(100);          // 300 tokens
+        PromptBudget budget = new PromptBudget(500, PromptBudgetTest::estimateTokens);
+
+        // When
+        String alone = budget.fit(input, fixedPart);
+        String shared = budget.fit(input, fixedPart, 2);
+
+        // Then
+        assertSame(input, alone, "300 tokens fit into the 400 left by the fixed part");
+        assertTrue(estimateTokens(shared) <= 200, "two inputs get 200 tokens each");
+        assertTrue(shared.contains("characters omitted"));
+    }
+}
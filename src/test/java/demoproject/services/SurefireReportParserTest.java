@@ -0,0 +1,170 @@
+package demoproject.services;
+
+import demoproject.models.TestCaseResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SurefireReportParser Tests")
+class SurefireReportParserTest {
+
+    @TempDir
+    Path reportsFolder;
+
+    private final SurefireReportParser parser = new SurefireReportParser();
+
+    private Path writeReport(String fileName, String testCases) throws IOException {
+        return Files.writeString(reportsFolder.resolve(fileName),
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<testsuite name=\"generated.code.CalculatorTest\" tests=\"3\">\n"
+                        + "  <properties><property name=\"java.version\" value=\"21\"/></properties>\n"
+                        + testCases
+                        + "</testsuite>\n");
+    }
+
+    @Test
+    @DisplayName("Should read passed test cases with their time in milliseconds")
+    void shouldParsePassedTestCases() throws IOException {
+        // Given
+        Path report = writeReport("TEST-generated.code.CalculatorTest.xml",
+                "  <testcase name=\"shouldAdd\" classname=\"generated.code.CalculatorTest\" time=\"0.012\"/>\n"
+                        + "  <testcase name=\"shouldSort\" classname=\"generated.code.CalculatorTest\" time=\"1,234.5\"/>\n"
+                        + "  <testcase name=\"shouldWait\" classname=\"generated.code.CalculatorTest\"/>\n");
+
+        // When
+        List<TestCaseResult> testCases = parser.parse(report);
+
+        // Then
+        assertEquals(3, testCases.size());
+        TestCaseResult first = testCases.get(0);
+        assertEquals("generated.code.CalculatorTest", first.getClassName());
+        assertEquals("shouldAdd", first.getName());
+        assertEquals(TestCaseResult.Outcome.PASSED, first.getOutcome());
+        assertEquals(12, first.getTimeMs());
+        assertEquals(1_234_500, testCases.get(1).getTimeMs());
+        assertEquals(0, testCases.get(2).getTimeMs());
+    }
+
+    @Test
+    @DisplayName("Should read failures, errors and skipped tests")
+    void shouldParseFailuresErrorsAndSkipped() throws IOException {
+        // Given
+        Path report = writeReport("TEST-generated.code.CalculatorTest.xml",
+                "  <testcase name=\"shouldDivide\" classname=\"generated.code.CalculatorTest\" time=\"0.003\">\n"
+                        + "    <failure message=\"expected: &lt;2&gt; but was: &lt;3&gt;\" type=\"org.opentest4j.AssertionFailedError\">"
+                        + "org.opentest4j.AssertionFailedError: expected: &lt;2&gt; but was: &lt;3&gt;\n"
+                        + "\tat generated.code.CalculatorTest.shouldDivide(CalculatorTest.java:21)</failure>\n"
+                        + "  </testcase>\n"
+                        + "  <testcase name=\"shouldParse\" classname=\"generated.code.CalculatorTest\" time=\"0.001\">\n"
+                        + "    <error message=\"boom\" type=\"java.lang.NullPointerException\"><![CDATA[java.lang.NullPointerException: boom]]></error>\n"
+                        + "  </testcase>\n"
+                        + "  <testcase name=\"shouldLater\" classname=\"generated.code.CalculatorTest\" time=\"0\">\n"
+                        + "    <skipped message=\"disabled\"/>\n"
+                        + "  </testcase>\n");
+
+        // When
+        List<TestCaseResult> testCases = parser.parse(report);
+
+        // Then
+        TestCaseResult failed = testCases.get(0);
+        assertEquals(TestCaseResult.Outcome.FAILED, failed.getOutcome());
+        assertTrue(failed.isFailed());
+        assertEquals("org.opentest4j.AssertionFailedError", failed.getFailureType());
+        assertEquals("expected: <2> but was: <3>", failed.getFailureMessage());
+        assertTrue(failed.getStackTrace().contains("CalculatorTest.java:21"));
+
+        TestCaseResult error = testCases.get(1);
+        assertEquals(TestCaseResult.Outcome.ERROR, error.getOutcome());
+        assertEquals("java.lang.NullPointerException", error.getFailureType());
+        assertEquals("java.lang.NullPointerException: boom", error.getStackTrace());
+
+        TestCaseResult skipped = testCases.get(2);
+        assertEquals(TestCaseResult.Outcome.SKIPPED, skipped.getOutcome());
+        assertFalse(skipped.isFailed());
+    }
+
+    @Test
+    @DisplayName("Should keep the first failure and ignore reruns and flaky attempts")
+    void shouldIgnoreRerunsAndFlakyAttempts() throws IOException {
+        // Given
+        Path report = writeReport("TEST-generated.code.CalculatorTest.xml",
+                "  <testcase name=\"shouldRetry\" classname=\"generated.code.CalculatorTest\" time=\"0.5\">\n"
+                        + "    <failure message=\"first\" type=\"java.lang.AssertionError\">first trace</failure>\n"
+                        + "    <rerunFailure message=\"second\" type=\"java.lang.IllegalStateException\">second trace</rerunFailure>\n"
+                        + "  </testcase>\n"
+                        + "  <testcase name=\"shouldFlake\" classname=\"generated.code.CalculatorTest\" time=\"0.2\">\n"
+                        + "    <flakyFailure message=\"flaky\" type=\"java.lang.AssertionError\">flaky trace</flakyFailure>\n"
+                        + "  </testcase>\n");
+
+        // When
+        List<TestCaseResult> testCases = parser.parse(report);
+
+        // Then
+        assertEquals(2, testCases.size());
+        assertEquals("first", testCases.get(0).getFailureMessage());
+        assertEquals("first trace", testCases.get(0).getStackTrace());
+        assertEquals(TestCaseResult.Outcome.PASSED, testCases.get(1).getOutcome(), "a flaky test passed on rerun");
+    }
+
+    @Test
+    @DisplayName("Should skip captured output and cut long stack traces")
+    void shouldSkipOutputAndCutStackTraces() throws IOException {
+        // Given
+        Path report = writeReport("TEST-generated.code.CalculatorTest.xml",
+                "  <testcase name=\"shouldLog\" classname=\"generated.code.CalculatorTest\" time=\"0.1\">\n"
+                        + "    <failure type=\"java.lang.AssertionError\">" + "at frame\n".repeat(2000) + "</failure>\n"
+                        + "    <system-out><![CDATA[" + "noisy output\n".repeat(50_000) + "]]></system-out>\n"
+                        + "  </testcase>\n");
+
+        // When
+        List<TestCaseResult> testCases = parser.parse(report);
+
+        // Then
+        assertEquals(1, testCases.size());
+        assertTrue(testCases.get(0).getStackTrace().length() <= 4000);
+        assertFalse(testCases.get(0).getStackTrace().contains("noisy output"));
+    }
+
+    @Test
+    @DisplayName("Should keep the test cases read before a report was cut off")
+    void shouldKeepTestCasesOfTruncatedReport() throws IOException {
+        // Given
+        Path report = Files.writeString(reportsFolder.resolve("TEST-generated.code.CalculatorTest.xml"),
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                        + "<testsuite name=\"generated.code.CalculatorTest\">\n"
+                        + "  <testcase name=\"shouldAdd\" classname=\"generated.code.CalculatorTest\" time=\"0.01\"/>\n"
+                        + "  <testcase name=\"shouldSub\" classname=\"generated.code.CalculatorTest\" time=\"0.01\">\n"
+                        + "    <failure message=\"cut");
+
+        // When
+        List<TestCaseResult> testCases = parser.parse(report);
+
+        // Then
+        assertFalse(testCases.isEmpty());
+        assertEquals("shouldAdd", testCases.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Should read only TEST-*.xml files, in name order, and nothing from a missing folder")
+    void shouldParseFolder() throws IOException {
+        // Given
+        writeReport("TEST-b.BTest.xml", "  <testcase name=\"b\" classname=\"b.BTest\" time=\"0\"/>\n");
+        writeReport("TEST-a.ATest.xml", "  <testcase name=\"a\" classname=\"a.ATest\" time=\"0\"/>\n");
+        writeReport("a.ATest.txt", "");
+        writeReport("failsafe-summary.xml", "  <testcase name=\"ignored\" classname=\"x.XTest\" time=\"0\"/>\n");
+
+        // When
+        List<TestCaseResult> testCases = parser.parseFolder(reportsFolder);
+
+        // Then
+        assertEquals(List.of("a", "b"), testCases.stream().map(TestCaseResult::getName).toList());
+        assertTrue(parser.parseFolder(reportsFolder.resolve("missing")).isEmpty());
+    }
+}